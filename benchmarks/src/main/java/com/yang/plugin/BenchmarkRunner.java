@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @ClassName BenchmarkRunner
+ * @Description 依次以不同线程数运行 {@link IterationStartBenchmark}，开启 gc 分析器，每个线程数输出一份 JSON 结果，便于跨版本对比。
+ * java -cp benchmarks.jar com.yang.plugin.BenchmarkRunner [线程数...]，默认 1 8 64
+ * @Version 1.0
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String[] threads = args.length == 0 ? new String[]{"1", "8", "64"} : args;
+        for (String thread : threads) {
+            Options options = new OptionsBuilder()
+                    .include(IterationStartBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(thread))
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("iterationStart-t" + thread + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * @ClassName HeapPerUserBenchmark
+ * @Description 测量每个模拟用户占用的堆内存。状态保存在用户变量中而不是 ThreadLocal，
+ * 因此可以在一个线程上依次切换上下文模拟大量用户，与虚拟线程下用户和载体线程不固定对应的情况一致。
+ * 分别统计只有用户变量时和加上元件状态、完成一次迭代后的堆占用，两者之差即元件为每个用户增加的内存。
+ * java -XX:+UseSerialGC -Xmx4g -cp benchmarks.jar com.yang.plugin.HeapPerUserBenchmark [用户数...]，默认 10000 100000
+ * @Version 1.0
+ */
+public class HeapPerUserBenchmark {
+
+    private static final String VARIABLE = "random";
+
+    /**
+     * 每种用户数分别以这些配置行数测量
+     */
+    private static final int[] BUCKETS = {16, 100};
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] users = args.length == 0 ? new String[]{"10000", "100000"} : args;
+        System.out.printf("%10s %8s %18s %18s %14s%n", "users", "buckets", "variables B/user", "state B/user",
+                "iteration ns");
+        for (String count : users) {
+            for (int buckets : BUCKETS) {
+                measure(Integer.parseInt(count), buckets);
+            }
+        }
+    }
+
+    private static void measure(int users, int buckets) throws InterruptedException {
+        RandomParameterElement element = new RandomParameterElement();
+        element.setName("heap");
+        element.setVariableName(VARIABLE);
+        element.setOutputFormat("%.2f");
+        for (int i = 0; i < buckets; i++) {
+            element.getHeaders().addItem(new RandomParameter(String.valueOf(i * 100), String.valueOf(i * 100 + 50),
+                    String.valueOf(i % 7 + 1)));
+        }
+        element.testStarted();
+        JMeterContext context = JMeterContextService.getContext();
+
+        long empty = usedHeap();
+        JMeterVariables[] variables = new JMeterVariables[users];
+        for (int i = 0; i < users; i++) {
+            variables[i] = new JMeterVariables();
+        }
+        long baseline = usedHeap();
+
+        for (JMeterVariables user : variables) {
+            context.setVariables(user);
+            element.threadStarted();
+            element.iterationStart(null);
+        }
+        long withState = usedHeap();
+
+        // 按轮次依次切换到每个用户执行一次迭代，模拟大量用户交替运行
+        long start = System.nanoTime();
+        for (JMeterVariables user : variables) {
+            context.setVariables(user);
+            element.iterationStart(null);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%10d %8d %18.1f %18.1f %14.1f%n", users, buckets, (baseline - empty) / (double) users,
+                (withState - baseline) / (double) users, elapsed / (double) users);
+
+        for (JMeterVariables user : variables) {
+            context.setVariables(user);
+            element.threadFinished();
+        }
+        element.testEnded();
+        context.setVariables(null);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName IterationStartBenchmark
+ * @Description 驱动 {@link RandomParameterElement#iterationStart} 的热路径，每个 JMH 线程模拟一个 JMeter 线程。
+ * 线程数用 -t 指定，分配速率用 -prof gc 查看，如
+ * java -jar benchmarks.jar IterationStartBenchmark -t 8 -prof gc -rf json
+ * @Version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterationStartBenchmark {
+
+    private static final String VARIABLE = "random";
+
+    @State(Scope.Benchmark)
+    public static class Plan {
+
+        @Param({"1", "3", "16", "256", "4096", "65536"})
+        public int buckets;
+
+        @Param({"%.2f", "%08.3f", "id-%.0f", "%e"})
+        public String format;
+
+        @Param({"THREAD_LOCAL_RANDOM", "SPLITTABLE_RANDOM", "XOSHIRO256PP", "PCG32"})
+        public String engine;
+
+        @Param({"DEFICIT", "PROBABILISTIC"})
+        public String strategy;
+
+        @Param({"THREAD", "GLOBAL"})
+        public String mode;
+
+        @Param({"0"})
+        public String bufferSize;
+
+        RandomParameterElement element;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            element = new RandomParameterElement();
+            element.setVariableName(VARIABLE);
+            element.setOutputFormat(format);
+            element.setRandomEngine(engine);
+            element.setSamplingStrategy(strategy);
+            element.setDistributionMode(mode);
+            element.setBufferSize(bufferSize);
+            for (int i = 0; i < buckets; i++) {
+                element.getHeaders().addItem(new RandomParameter(String.valueOf(i * 100), String.valueOf(i * 100 + 50),
+                        String.valueOf(i % 7 + 1)));
+            }
+            element.testStarted();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            element.testEnded();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class VirtualUser {
+
+        JMeterVariables variables;
+
+        @Setup(Level.Trial)
+        public void setUp(Plan plan) {
+            JMeterContext context = JMeterContextService.getContext();
+            variables = new JMeterVariables();
+            context.setVariables(variables);
+            plan.element.threadStarted();
+        }
+    }
+
+    @Benchmark
+    public Object iterationStart(Plan plan, VirtualUser user) {
+        plan.element.iterationStart(null);
+        return user.variables.getObject(VARIABLE);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName RandomEngineBenchmark
+ * @Description 各随机数引擎的吞吐量，RANDOM_UTILS 为原先使用的 commons-lang3 共享 Random，作为对照。
+ * 用 -t 指定线程数观察竞争，如 java -jar benchmarks.jar RandomEngineBenchmark -t 64
+ * @Version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomEngineBenchmark {
+
+    @Param({"RANDOM_UTILS", "THREAD_LOCAL_RANDOM", "SPLITTABLE_RANDOM", "XOSHIRO256PP", "PCG32"})
+    public String engine;
+
+    private RandomEngine random;
+
+    @Setup
+    public void setUp() {
+        random = "RANDOM_UTILS".equals(engine) ? null : RandomEngineType.of(engine).create();
+    }
+
+    @Benchmark
+    public double nextDouble() {
+        if (random == null) {
+            return RandomUtils.nextDouble(40.005d, 70.009d);
+        }
+        return random.nextDouble(40.005d, 70.009d);
+    }
+
+    @Benchmark
+    public int nextInt() {
+        if (random == null) {
+            return RandomUtils.nextInt(0, 256);
+        }
+        return random.nextInt(256);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName AliasBucketSampler
+ * @Description 按概率抽样：查共享的 {@link AliasTable}，每次选择 O(1)
+ * @Version 1.0
+ */
+final class AliasBucketSampler extends BucketSampler {
+
+    AliasBucketSampler(BucketTable table, BucketWeights weights, RandomEngine random) {
+        super(table, weights, random);
+    }
+
+    @Override
+    int nextBucket() {
+        refresh();
+        return snapshot.alias.next(random);
+    }
+}
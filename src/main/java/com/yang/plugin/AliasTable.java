@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName AliasTable
+ * @Description Vose 别名表，构建 O(k)，每次选择 O(1)；只读，所有线程共享
+ * @Version 1.0
+ */
+final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param ratios 各区间的占比，不要求归一化
+     */
+    AliasTable(double[] ratios) {
+        int size = ratios.length;
+        probability = new double[size];
+        alias = new int[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Math.max(ratios[i], 0);
+        }
+        if (size == 0 || !(sum > 0)) {
+            // 没有有效占比时退化为均匀抽样
+            for (int i = 0; i < size; i++) {
+                probability[i] = 1.0d;
+                alias[i] = i;
+            }
+            return;
+        }
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = Math.max(ratios[i], 0) * size / sum;
+            if (scaled[i] < 1.0d) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0d;
+            if (scaled[more] < 1.0d) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        // 剩余项只因浮点误差偏离 1
+        while (largeSize > 0) {
+            int more = large[--largeSize];
+            probability[more] = 1.0d;
+            alias[more] = more;
+        }
+        while (smallSize > 0) {
+            int less = small[--smallSize];
+            probability[less] = 1.0d;
+            alias[less] = less;
+        }
+    }
+
+    int size() {
+        return probability.length;
+    }
+
+    double probability(int column) {
+        return probability[column];
+    }
+
+    int alias(int column) {
+        return alias[column];
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 区间下标，区间表为空时返回 -1
+     */
+    int next(RandomEngine random) {
+        int size = probability.length;
+        if (size == 0) {
+            return -1;
+        }
+        int column = random.nextInt(size);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
@@ -0,0 +1,603 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ClassName BucketFile
+ * @Description 文件中的区间表，供“文件”类型的配置行使用，适合数千个区间或上百万个带权重的枚举值。
+ * CSV 每行为 极小值,极大值,占比[,类型]，类型为浮点数（默认）、整数、长整数或枚举值（DOUBLE/INT/LONG/VALUE），
+ * 枚举值行的取值写在极小值列，可用双引号包含逗号；以 # 开头的行和首行表头被忽略，无法解析的行跳过并在编译时报告。
+ * CSV 只解析一次，结果连同预先构建的别名表写入同目录的 .bkt 二进制缓存，之后按文件长度和修改时间校验后直接映射；
+ * 也可以直接指定 .bkt 文件。映射为只读的堆外内存，同一 JVM 中按路径共享，所有线程只做绝对位置读取
+ * @Version 1.0
+ */
+final class BucketFile {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketFile.class);
+
+    static final String CACHE_SUFFIX = ".bkt";
+
+    /**
+     * 文件标识
+     */
+    private static final long MAGIC = 0x314B42544B505200L;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 96;
+    /**
+     * 源文件绝对路径的 SHA-256，临时目录中的缓存按路径哈希命名，打开时据此排除同名的其他文件的缓存
+     */
+    private static final int DIGEST_OFFSET = 56;
+    private static final int DIGEST_SIZE = 32;
+
+    private static final byte KIND_DOUBLE = 0;
+    private static final byte KIND_INT = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_VALUE = 3;
+
+    private static final Map<String, BucketFile> OPENED = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final long sourceLength;
+    private final long sourceModified;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final boolean hasValues;
+    private final boolean allInteger;
+    private final double min;
+    private final double max;
+    /**
+     * 各段在映射中的字节偏移：类型 byte，下界 long（浮点数存位模式，枚举值存字符串偏移），
+     * 上界 long（枚举值存字符串长度），别名概率 double，别名 int，字符串 UTF-8
+     */
+    private final int kindOffset;
+    private final int lowOffset;
+    private final int highOffset;
+    private final int probabilityOffset;
+    private final int aliasOffset;
+    private final int stringOffset;
+    /**
+     * 枚举值第一次被选中时解码，之后所有线程共用同一个字符串
+     */
+    private final String[] values;
+    /**
+     * 解析 CSV 时跳过的行，有跳过的行时不写缓存，每次打开都会重新报告
+     */
+    private final List<String> skipped;
+
+    private BucketFile(String path, long sourceLength, long sourceModified, ByteBuffer buffer,
+                       List<String> skipped) {
+        this.path = path;
+        this.skipped = skipped;
+        this.sourceLength = sourceLength;
+        this.sourceModified = sourceModified;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+            throw new IllegalArgumentException("not a bucket cache file: " + path);
+        }
+        this.count = buffer.getInt(12);
+        int flags = buffer.getInt(32);
+        this.hasValues = (flags & 1) != 0;
+        this.allInteger = (flags & 2) != 0;
+        this.min = buffer.getDouble(40);
+        this.max = buffer.getDouble(48);
+        this.kindOffset = HEADER_SIZE;
+        this.lowOffset = align(kindOffset + count);
+        this.highOffset = lowOffset + 8 * count;
+        this.probabilityOffset = highOffset + 8 * count;
+        this.aliasOffset = probabilityOffset + 8 * count;
+        this.stringOffset = aliasOffset + 4 * count;
+        if (count <= 0 || stringOffset > buffer.capacity()) {
+            throw new IllegalArgumentException("truncated or empty bucket cache file: " + path);
+        }
+        this.values = hasValues ? new String[count] : null;
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * 打开文件，同一路径且文件未改变时返回已映射的实例
+     *
+     * @param path 已解析为绝对路径的 CSV 或 .bkt 文件
+     * @return 映射后的区间表
+     * @throws IllegalArgumentException 文件不存在、格式错误或无法读取
+     */
+    static BucketFile open(String path) {
+        File source = new File(path);
+        if (!source.isFile()) {
+            throw new IllegalArgumentException("file not found: " + path);
+        }
+        long length = source.length();
+        long modified = source.lastModified();
+        BucketFile opened = OPENED.get(path);
+        if (opened != null && opened.sourceLength == length && opened.sourceModified == modified) {
+            return opened;
+        }
+        try {
+            BucketFile file = path.endsWith(CACHE_SUFFIX)
+                    ? new BucketFile(path, length, modified, map(source.toPath()), Collections.emptyList())
+                    : openCsv(source, length, modified);
+            OPENED.put(path, file);
+            return file;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to read " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 校验用：不写缓存、不映射，也不登记为已打开的实例。已打开且未改变时直接返回，
+     * 否则把有效的缓存或 CSV 的解析结果读入堆内存，用完即可回收
+     *
+     * @param path 已解析为绝对路径的 CSV 或 .bkt 文件
+     * @return 堆内存中的区间表
+     * @throws IllegalArgumentException 文件不存在、格式错误或无法读取
+     */
+    static BucketFile inspect(String path) {
+        File source = new File(path);
+        if (!source.isFile()) {
+            throw new IllegalArgumentException("file not found: " + path);
+        }
+        long length = source.length();
+        long modified = source.lastModified();
+        BucketFile opened = OPENED.get(path);
+        if (opened != null && opened.sourceLength == length && opened.sourceModified == modified) {
+            return opened;
+        }
+        try {
+            if (path.endsWith(CACHE_SUFFIX)) {
+                return new BucketFile(path, length, modified, read(source.toPath()), Collections.emptyList());
+            }
+            byte[] digest = digest(source);
+            for (Path cache : caches(source)) {
+                if (isValidCache(cache, length, modified, digest)) {
+                    return new BucketFile(path, length, modified, read(cache), Collections.emptyList());
+                }
+            }
+            List<String> skipped = new ArrayList<>();
+            ByteBuffer content = parse(source, length, modified, digest, skipped);
+            return new BucketFile(path, length, modified, content, skipped);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to read " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("bucket cache larger than 2GB");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满整个文件
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("bucket cache larger than 2GB");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * 有效的缓存直接映射，否则解析 CSV 并写出缓存；同目录不可写时写到临时目录
+     */
+    private static BucketFile openCsv(File source, long length, long modified) throws IOException {
+        String path = source.getPath();
+        byte[] digest = digest(source);
+        Path[] caches = caches(source);
+        for (Path cache : caches) {
+            if (isValidCache(cache, length, modified, digest)) {
+                log.info("Mapping bucket cache {} for {}", cache, path);
+                return new BucketFile(path, length, modified, map(cache), Collections.emptyList());
+            }
+        }
+        long start = System.nanoTime();
+        List<String> skipped = new ArrayList<>();
+        ByteBuffer content = parse(source, length, modified, digest, skipped);
+        log.info("Parsed {} rows from {} in {} ms", content.getInt(12), path, (System.nanoTime() - start) / 1000000);
+        for (int i = 0; skipped.isEmpty() && i < caches.length; i++) {
+            try {
+                write(caches[i], content);
+                return new BucketFile(path, length, modified, map(caches[i]), skipped);
+            } catch (IOException e) {
+                log.warn("Failed to write bucket cache {}: {}", caches[i], e.getMessage());
+            }
+        }
+        // 无法写缓存或有跳过的行时直接使用堆外内存中的解析结果
+        ByteBuffer direct = ByteBuffer.allocateDirect(content.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+        direct.put(content);
+        return new BucketFile(path, length, modified, direct, skipped);
+    }
+
+    /**
+     * @return 依次尝试的缓存位置：同目录，其次临时目录
+     */
+    private static Path[] caches(File source) {
+        return new Path[]{
+                Paths.get(source.getPath() + CACHE_SUFFIX),
+                Paths.get(System.getProperty("java.io.tmpdir"),
+                        "rp-" + Integer.toHexString(source.getAbsolutePath().hashCode()) + CACHE_SUFFIX)
+        };
+    }
+
+    /**
+     * @return 源文件绝对路径的 SHA-256
+     */
+    private static byte[] digest(File source) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(source.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isValidCache(Path cache, long length, long modified, byte[] digest) {
+        if (!Files.isRegularFile(cache)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(cache)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // 读满文件头
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC || header.getInt(8) != VERSION
+                    || header.getLong(16) != length || header.getLong(24) != modified) {
+                return false;
+            }
+            for (int i = 0; i < DIGEST_SIZE; i++) {
+                if (header.get(DIGEST_OFFSET + i) != digest[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，多个进程同时生成缓存时不会读到写了一半的文件
+     */
+    private static void write(Path cache, ByteBuffer content) throws IOException {
+        Path parent = cache.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, cache.getFileName().toString(), ".tmp");
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(temp.toFile(), "rw")) {
+                ByteBuffer source = content.duplicate();
+                FileChannel channel = file.getChannel();
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 解析 CSV，无法解析的行记录到 skipped 后跳过：占比必须是有限的非负数，数值行的上下界必须有限且下界不大于上界
+     */
+    private static ByteBuffer parse(File source, long length, long modified, byte[] digest, List<String> skipped)
+            throws IOException {
+        byte[] kinds = new byte[1024];
+        long[] lows = new long[1024];
+        long[] highs = new long[1024];
+        double[] ratios = new double[1024];
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int count = 0;
+        boolean hasValues = false;
+        boolean allInteger = true;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        List<String> fields = new ArrayList<>(4);
+        try (BufferedReader reader = Files.newBufferedReader(source.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                split(line, fields);
+                if (fields.size() < 3) {
+                    skipped.add(source.getPath() + " line " + lineNumber + ": expected min,max,ratio[,type]");
+                    continue;
+                }
+                double ratio;
+                try {
+                    ratio = BucketTable.parseRatio(fields.get(2));
+                } catch (NumberFormatException e) {
+                    if (count > 0 || lineNumber > 1) {
+                        skipped.add(source.getPath() + " line " + lineNumber + ": invalid ratio '"
+                                + fields.get(2) + "'");
+                    }
+                    // 首行的占比不是数字时为表头
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    skipped.add(source.getPath() + " line " + lineNumber + ": " + e.getMessage());
+                    continue;
+                }
+                if (ratio == 0) {
+                    skipped.add(source.getPath() + " line " + lineNumber + ": ratio 0 is never chosen");
+                    continue;
+                }
+                if (count == kinds.length) {
+                    int capacity = count * 2;
+                    kinds = Arrays.copyOf(kinds, capacity);
+                    lows = Arrays.copyOf(lows, capacity);
+                    highs = Arrays.copyOf(highs, capacity);
+                    ratios = Arrays.copyOf(ratios, capacity);
+                }
+                try {
+                    BucketKind kind = fields.size() > 3 ? BucketKind.parse(fields.get(3)) : BucketKind.DOUBLE;
+                    switch (kind) {
+                        case INT:
+                        case LONG:
+                            long low = Long.parseLong(fields.get(0).trim());
+                            long high = Long.parseLong(fields.get(1).trim());
+                            if (high < low || (kind == BucketKind.INT && (low < Integer.MIN_VALUE
+                                    || high > Integer.MAX_VALUE))) {
+                                throw new NumberFormatException("invalid range");
+                            }
+                            kinds[count] = kind == BucketKind.INT ? KIND_INT : KIND_LONG;
+                            lows[count] = low;
+                            highs[count] = high;
+                            min = Math.min(min, low);
+                            max = Math.max(max, high);
+                            break;
+                        case VALUE:
+                            byte[] bytes = fields.get(0).getBytes(StandardCharsets.UTF_8);
+                            kinds[count] = KIND_VALUE;
+                            lows[count] = strings.size();
+                            highs[count] = bytes.length;
+                            strings.write(bytes, 0, bytes.length);
+                            hasValues = true;
+                            break;
+                        case DOUBLE:
+                        default:
+                            double lower = Double.parseDouble(fields.get(0).trim());
+                            double upper = Double.parseDouble(fields.get(1).trim());
+                            if (!Double.isFinite(lower) || !Double.isFinite(upper)) {
+                                throw new NumberFormatException("min and max must be finite");
+                            }
+                            if (upper < lower) {
+                                throw new NumberFormatException("max < min");
+                            }
+                            kinds[count] = KIND_DOUBLE;
+                            lows[count] = Double.doubleToRawLongBits(lower);
+                            highs[count] = Double.doubleToRawLongBits(upper);
+                            min = Math.min(min, lower);
+                            max = Math.max(max, upper);
+                            allInteger = false;
+                            break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    skipped.add(source.getPath() + " line " + lineNumber + ": " + e.getMessage());
+                    continue;
+                }
+                ratios[count] = ratio;
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IOException("no rows");
+        }
+        AliasTable alias = new AliasTable(Arrays.copyOf(ratios, count));
+        int lowOffset = align(HEADER_SIZE + count);
+        int stringOffset = lowOffset + 28 * count;
+        long size = (long) stringOffset + strings.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("bucket cache larger than 2GB");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, VERSION);
+        buffer.putInt(12, count);
+        buffer.putLong(16, length);
+        buffer.putLong(24, modified);
+        buffer.putInt(32, (hasValues ? 1 : 0) | (allInteger ? 2 : 0));
+        buffer.putDouble(40, min == Double.POSITIVE_INFINITY ? 0 : min);
+        buffer.putDouble(48, max == Double.NEGATIVE_INFINITY ? 0 : max);
+        for (int i = 0; i < DIGEST_SIZE; i++) {
+            buffer.put(DIGEST_OFFSET + i, digest[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put(HEADER_SIZE + i, kinds[i]);
+            buffer.putLong(lowOffset + 8 * i, lows[i]);
+            buffer.putLong(lowOffset + 8 * count + 8 * i, highs[i]);
+            buffer.putDouble(lowOffset + 16 * count + 8 * i, alias.probability(i));
+            buffer.putInt(lowOffset + 24 * count + 4 * i, alias.alias(i));
+        }
+        byte[] pool = strings.toByteArray();
+        for (int i = 0; i < pool.length; i++) {
+            buffer.put(stringOffset + i, pool[i]);
+        }
+        return buffer;
+    }
+
+    /**
+     * 按逗号切分一行，支持双引号包含逗号，两个连续的双引号表示一个双引号
+     */
+    private static void split(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    int size() {
+        return count;
+    }
+
+    String path() {
+        return path;
+    }
+
+    /**
+     * @return 是否包含枚举值行
+     */
+    boolean hasValues() {
+        return hasValues;
+    }
+
+    /**
+     * @return 数值行是否全部为整数
+     */
+    boolean allInteger() {
+        return allInteger;
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    /**
+     * 按别名表选出一行
+     *
+     * @param random 当前线程的随机数引擎
+     * @return 行下标
+     */
+    int next(RandomEngine random) {
+        int column = random.nextInt(count);
+        return random.nextDouble() < buffer.getDouble(probabilityOffset + 8 * column)
+                ? column : buffer.getInt(aliasOffset + 4 * column);
+    }
+
+    BucketKind kind(int index) {
+        switch (buffer.get(kindOffset + index)) {
+            case KIND_INT:
+                return BucketKind.INT;
+            case KIND_LONG:
+                return BucketKind.LONG;
+            case KIND_VALUE:
+                return BucketKind.VALUE;
+            case KIND_DOUBLE:
+            default:
+                return BucketKind.DOUBLE;
+        }
+    }
+
+    double doubleMin(int index) {
+        return Double.longBitsToDouble(buffer.getLong(lowOffset + 8 * index));
+    }
+
+    double doubleMax(int index) {
+        return Double.longBitsToDouble(buffer.getLong(highOffset + 8 * index));
+    }
+
+    long longMin(int index) {
+        return buffer.getLong(lowOffset + 8 * index);
+    }
+
+    long longMax(int index) {
+        return buffer.getLong(highOffset + 8 * index);
+    }
+
+    /**
+     * @param index 枚举值行下标
+     * @return 该行的取值
+     */
+    String value(int index) {
+        String value = values[index];
+        if (value == null) {
+            // 多个线程同时解码时得到相等的字符串，保留哪一个都可以
+            int offset = stringOffset + (int) buffer.getLong(lowOffset + 8 * index);
+            byte[] bytes = new byte[(int) buffer.getLong(highOffset + 8 * index)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(offset + i);
+            }
+            value = new String(bytes, StandardCharsets.UTF_8);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return 解析 CSV 时跳过的行及原因
+     */
+    List<String> skipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName BucketKind
+ * @Description 配置行的取值类型
+ * @Version 1.0
+ */
+public enum BucketKind {
+
+    /**
+     * [极小值, 极大值) 内的浮点数
+     */
+    DOUBLE("浮点数"),
+
+    /**
+     * [极小值, 极大值] 内的 int 整数，默认格式 %d
+     */
+    INT("整数"),
+
+    /**
+     * [极小值, 极大值] 内的 long 整数，默认格式 %d
+     */
+    LONG("长整数"),
+
+    /**
+     * 极小值列填写的值，多个值用 | 分隔时在行内均匀选取，极大值列不使用
+     */
+    VALUE("枚举值"),
+
+    /**
+     * 极小值列填写区间文件的路径（相对路径相对于测试计划所在目录），行内按文件中各行的占比选取，见 {@link BucketFile}
+     */
+    FILE("文件");
+
+    private final String label;
+
+    BucketKind(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #DOUBLE}
+     *
+     * @param value 属性值
+     * @return 对应的类型
+     */
+    public static BucketKind of(String value) {
+        return Enums.of(BucketKind.class, value, DOUBLE);
+    }
+
+    /**
+     * 编译配置行时解析属性值，空值使用默认的 {@link #DOUBLE}，无法识别的值视为配置错误
+     *
+     * @param value 属性值
+     * @return 对应的类型
+     * @throws IllegalArgumentException 属性值非空且无法识别
+     */
+    static BucketKind parse(String value) {
+        return Enums.require(BucketKind.class, value, DOUBLE);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
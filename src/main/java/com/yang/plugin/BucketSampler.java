@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName BucketSampler
+ * @Description 每个线程持有一个编译好的采样器，负责选出下一个区间，迭代过程中不分配对象
+ * @Version 1.0
+ */
+abstract class BucketSampler {
+
+    protected final BucketTable table;
+    protected final BucketWeights weights;
+    protected final RandomEngine random;
+    /**
+     * 当前线程使用的占比快照及其纪元
+     */
+    protected BucketWeights.Snapshot snapshot;
+    private int epoch;
+
+    protected BucketSampler(BucketTable table, BucketWeights weights, RandomEngine random) {
+        this.table = table;
+        this.weights = weights;
+        this.random = random;
+        this.epoch = weights.epoch();
+        this.snapshot = weights.snapshot();
+    }
+
+    /**
+     * 占比更新后取新的快照，未更新时只有一次 volatile 读
+     *
+     * @return 快照是否变化
+     */
+    protected final boolean refresh() {
+        int current = weights.epoch();
+        if (current == epoch) {
+            return false;
+        }
+        epoch = current;
+        snapshot = weights.snapshot();
+        return true;
+    }
+
+    /**
+     * 选出下一个区间
+     *
+     * @return 区间下标，区间表为空时返回 -1
+     */
+    abstract int nextBucket();
+
+    /**
+     * 线程结束时调用，归还占用的共享资源
+     */
+    void release() {
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.services.FileServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+
+/**
+ * @ClassName BucketTable
+ * @Description 由 {@link RandomParameter} 配置行编译而成的扁平区间表，只读，可在线程间共享
+ * @Version 1.0
+ */
+final class BucketTable {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketTable.class);
+
+    private final BucketKind[] kind;
+    private final double[] min;
+    private final double[] max;
+    /**
+     * 整数区间的上下界与取值个数（max - min + 1），取值个数超出 long 范围时不大于 0
+     */
+    private final long[] longMin;
+    private final long[] longMax;
+    private final long[] span;
+    /**
+     * 枚举值区间的全部取值
+     */
+    private final String[][] values;
+    /**
+     * 文件区间的区间表
+     */
+    private final BucketFile[] files;
+    /**
+     * 行内的非均匀分布，均匀分布时为 null；枚举值区间按下标取值
+     */
+    private final ValueDistribution[] distribution;
+    private final double[] ratio;
+    /**
+     * 区间对应的配置行下标
+     */
+    private final int[] row;
+
+    private BucketTable(int size) {
+        this.kind = new BucketKind[size];
+        this.min = new double[size];
+        this.max = new double[size];
+        this.longMin = new long[size];
+        this.longMax = new long[size];
+        this.span = new long[size];
+        this.values = new String[size][];
+        this.files = new BucketFile[size];
+        this.distribution = new ValueDistribution[size];
+        this.ratio = new double[size];
+        this.row = new int[size];
+    }
+
+    private BucketTable(BucketTable source, int size) {
+        this.kind = Arrays.copyOf(source.kind, size);
+        this.min = Arrays.copyOf(source.min, size);
+        this.max = Arrays.copyOf(source.max, size);
+        this.longMin = Arrays.copyOf(source.longMin, size);
+        this.longMax = Arrays.copyOf(source.longMax, size);
+        this.span = Arrays.copyOf(source.span, size);
+        this.values = Arrays.copyOf(source.values, size);
+        this.files = Arrays.copyOf(source.files, size);
+        this.distribution = Arrays.copyOf(source.distribution, size);
+        this.ratio = Arrays.copyOf(source.ratio, size);
+        this.row = Arrays.copyOf(source.row, size);
+    }
+
+    /**
+     * 按行顺序解析联合行，每个变量一张区间表，各表的区间下标一一对应；
+     * 一行中任一变量无法解析时整行跳过，保证各表对齐。没有配置占比计划时占比为 0 的行永远不会被选中，同样跳过
+     *
+     * @param element 随机数元件
+     * @param rows    配置行下标
+     * @param members  每行包含的变量个数
+     * @param problems 收集被跳过的行
+     * @return 按变量排列的区间表
+     */
+    static BucketTable[] compile(RandomParameterElement element, int[] rows, int members,
+                                 CompileProblems problems) {
+        BucketTable[] tables = new BucketTable[members];
+        for (int member = 0; member < members; member++) {
+            tables[member] = new BucketTable(rows.length);
+        }
+        // 配置了占比计划时占比为 0 的行可能在之后被调高，需要保留
+        boolean scheduled = !element.getRatioSchedule().trim().isEmpty();
+        int count = 0;
+        for (int i : rows) {
+            RandomParameter row = element.get(i);
+            RandomParameter randomParameter = row;
+            try {
+                for (int member = 0; member < members; member++) {
+                    randomParameter = row.member(member, members);
+                    tables[member].parse(count, randomParameter, scheduled, problems);
+                    tables[member].row[count] = i;
+                }
+                count++;
+            } catch (IllegalArgumentException e) {
+                problems.error(log, "Skipping row {} of {}: variable={}, min={}, max={}, ratio={}, type={}, distribution={}({}): {}",
+                        i + 1, element.getName(), row.getHvariable(), randomParameter.getHmin(),
+                        randomParameter.getHmax(), randomParameter.getHratio(), randomParameter.getHtype(),
+                        randomParameter.getHdistribution(), randomParameter.getHparameters(), e.getMessage());
+            }
+        }
+        if (count < rows.length) {
+            for (int member = 0; member < members; member++) {
+                tables[member] = new BucketTable(tables[member], count);
+            }
+        }
+        return tables;
+    }
+
+    private void parse(int bucket, RandomParameter randomParameter, boolean scheduled, CompileProblems problems) {
+        BucketKind bucketKind = BucketKind.parse(randomParameter.getHtype());
+        DistributionType distributionType = DistributionType.parse(randomParameter.getHdistribution());
+        String parameters = randomParameter.getHparameters();
+        kind[bucket] = bucketKind;
+        ratio[bucket] = parseRatio(randomParameter.getHratio());
+        if (ratio[bucket] == 0 && !scheduled) {
+            throw new IllegalArgumentException("ratio 0 is never chosen without a ratio schedule");
+        }
+        switch (bucketKind) {
+            case INT:
+            case LONG:
+                long low = bucketKind == BucketKind.INT
+                        ? Integer.parseInt(randomParameter.getHmin().trim()) : Long.parseLong(randomParameter.getHmin().trim());
+                long high = bucketKind == BucketKind.INT
+                        ? Integer.parseInt(randomParameter.getHmax().trim()) : Long.parseLong(randomParameter.getHmax().trim());
+                if (high < low) {
+                    throw new IllegalArgumentException("max < min");
+                }
+                longMin[bucket] = low;
+                longMax[bucket] = high;
+                span[bucket] = high - low + 1;
+                min[bucket] = low;
+                max[bucket] = high;
+                distribution[bucket] = ValueDistribution.create(distributionType, parameters, low, high, true);
+                break;
+            case VALUE:
+                values[bucket] = randomParameter.getHmin().split("\\|", -1);
+                distribution[bucket] = ValueDistribution.create(distributionType, parameters,
+                        0, values[bucket].length - 1, true);
+                break;
+            case FILE:
+                if (distributionType != DistributionType.UNIFORM) {
+                    throw new IllegalArgumentException("distribution is not supported for file rows");
+                }
+                String path = FileServer.resolveBaseRelativeName(randomParameter.getHmin().trim());
+                BucketFile file = problems.validating() ? BucketFile.inspect(path) : BucketFile.open(path);
+                for (String line : file.skipped()) {
+                    problems.error(log, "Skipping {}", line);
+                }
+                files[bucket] = file;
+                min[bucket] = file.min();
+                max[bucket] = file.max();
+                break;
+            case DOUBLE:
+            default:
+                min[bucket] = Double.parseDouble(randomParameter.getHmin());
+                max[bucket] = Double.parseDouble(randomParameter.getHmax());
+                if (!Double.isFinite(min[bucket]) || !Double.isFinite(max[bucket])) {
+                    throw new IllegalArgumentException("min and max must be finite");
+                }
+                if (max[bucket] < min[bucket]) {
+                    throw new IllegalArgumentException("max < min");
+                }
+                distribution[bucket] = ValueDistribution.create(distributionType, parameters,
+                        min[bucket], max[bucket], false);
+                break;
+        }
+    }
+
+    /**
+     * 占比必须是有限的非负数。0 只在占比计划中有意义（全部为 0 时各区间按相同的占比选取），
+     * 配置行和区间文件行的占比为 0 时由调用方作为错误跳过
+     *
+     * @param text 占比
+     * @return 解析后的占比
+     */
+    static double parseRatio(String text) {
+        double value = Double.parseDouble(text.trim());
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("ratio must be a finite non-negative number");
+        }
+        return value;
+    }
+
+    /**
+     * 用一个样例值试用格式，迭代时不再因为格式与类型不符抛出异常
+     *
+     * @param format 输出格式
+     * @param sample 与区间类型对应的样例值
+     * @return 格式是否可用
+     */
+    static boolean validFormat(String format, Object sample) {
+        try {
+            String.format(format, sample);
+            return true;
+        } catch (IllegalFormatException e) {
+            return false;
+        }
+    }
+
+    int size() {
+        return ratio.length;
+    }
+
+    int row(int bucket) {
+        return row[bucket];
+    }
+
+    BucketKind kind(int bucket) {
+        return kind[bucket];
+    }
+
+    long longMin(int bucket) {
+        return longMin[bucket];
+    }
+
+    long longMax(int bucket) {
+        return longMax[bucket];
+    }
+
+    long span(int bucket) {
+        return span[bucket];
+    }
+
+    String[] values(int bucket) {
+        return values[bucket];
+    }
+
+    BucketFile file(int bucket) {
+        return files[bucket];
+    }
+
+    ValueDistribution distribution(int bucket) {
+        return distribution[bucket];
+    }
+
+    double min(int bucket) {
+        return min[bucket];
+    }
+
+    double max(int bucket) {
+        return max[bucket];
+    }
+
+    double ratio(int bucket) {
+        return ratio[bucket];
+    }
+}
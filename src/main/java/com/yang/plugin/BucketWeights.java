@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName BucketWeights
+ * @Description 一个变量当前生效的各区间占比，以及据此预先构建好的别名表或累计占比，所有线程共享。
+ * 占比计划更新时整体替换快照后递增纪元；线程每次选择只读一次 volatile 的纪元，变化时才取新的快照，不加锁也不重建结构
+ * @Version 1.0
+ */
+final class BucketWeights {
+
+    private final boolean withAlias;
+    private final boolean withCumulative;
+    /**
+     * 在递增 {@link #epoch} 之前写入，读取方先读纪元再读快照即可看到不早于该纪元的快照
+     */
+    private Snapshot snapshot;
+    private volatile int epoch;
+
+    /**
+     * @param ratios         初始占比，按区间下标排列
+     * @param withAlias      是否需要别名表（按概率抽样）
+     * @param withCumulative 是否需要累计占比（全局占比）
+     */
+    BucketWeights(double[] ratios, boolean withAlias, boolean withCumulative) {
+        this.withAlias = withAlias;
+        this.withCumulative = withCumulative;
+        this.snapshot = new Snapshot(ratios, withAlias, withCumulative);
+    }
+
+    /**
+     * @return 当前纪元，每次更新加一
+     */
+    int epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return 当前快照，应在 {@link #epoch()} 之后读取
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 替换占比，只能由一个线程调用
+     *
+     * @param ratios 新的占比，按区间下标排列
+     */
+    void update(double[] ratios) {
+        snapshot = new Snapshot(ratios, withAlias, withCumulative);
+        epoch++;
+    }
+
+    /**
+     * 在累计占比中查找第一个大于 u 的位置。每轮只把区间缩小一半并用条件赋值移动起点，
+     * 循环次数固定为 ⌈log2 k⌉，比较结果不产生分支预测失败，k 达到百万时也只需 20 轮
+     *
+     * @param cumulative 归一化后的累计占比，最后一项为 1，不能为空
+     * @param u          [0, 1) 内的数
+     * @return 区间下标，占比为 0 的区间不会被选中
+     */
+    static int search(double[] cumulative, double u) {
+        int base = 0;
+        int length = cumulative.length;
+        while (length > 1) {
+            int half = length >>> 1;
+            base = cumulative[base + half - 1] <= u ? base + half : base;
+            length -= half;
+        }
+        return base;
+    }
+
+    /**
+     * 只读的占比快照
+     */
+    static final class Snapshot {
+
+        final double[] ratios;
+        /**
+         * 归一化占比的倒数，占比为 0 时为 0；按占比补齐用乘法代替除法计算 次数/占比。
+         * 占比全部为 0 时归一化后各区间相同，按顺序轮流选取而不是一直选第一个区间
+         */
+        final double[] inverse;
+        /**
+         * 归一化后的占比，和为 1；没有有效占比时各区间相同
+         */
+        final double[] normalized;
+        final AliasTable alias;
+        /**
+         * 归一化后的累计占比，最后一项为 1
+         */
+        final double[] cumulative;
+
+        private Snapshot(double[] ratios, boolean withAlias, boolean withCumulative) {
+            int size = ratios.length;
+            this.ratios = ratios;
+            this.inverse = new double[size];
+            this.normalized = new double[size];
+            double sum = 0;
+            for (double ratio : ratios) {
+                sum += Math.max(ratio, 0);
+            }
+            for (int i = 0; i < size; i++) {
+                normalized[i] = sum > 0 ? Math.max(ratios[i], 0) / sum : 1.0d / size;
+                inverse[i] = normalized[i] == 0 ? 0 : 1.0d / normalized[i];
+            }
+            this.alias = withAlias ? new AliasTable(normalized) : null;
+            if (withCumulative) {
+                cumulative = new double[size];
+                double running = 0;
+                for (int i = 0; i < size; i++) {
+                    running += normalized[i];
+                    cumulative[i] = running;
+                }
+                if (size > 0) {
+                    cumulative[size - 1] = 1.0d;
+                }
+            } else {
+                cumulative = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @ClassName CompileProblems
+ * @Description 编译元件时发现的问题。每个问题在测试开始时记录一次日志，同时收集起来供界面上的校验按钮展示；
+ * 无法解析的配置行在编译时剔除，格式等可以修正的问题替换为默认值，迭代过程中不再解析也不会抛出异常
+ * @Version 1.0
+ */
+final class CompileProblems {
+
+    private final List<String> problems = new ArrayList<>();
+    private final boolean validating;
+
+    CompileProblems() {
+        this(false);
+    }
+
+    /**
+     * @param validating 是否只为校验而编译
+     */
+    CompileProblems(boolean validating) {
+        this.validating = validating;
+    }
+
+    /**
+     * @return 只为校验而编译时为 true，此时编译不能有副作用：不写缓存文件，不映射文件，不登记共享的实例
+     */
+    boolean validating() {
+        return validating;
+    }
+
+    /**
+     * 记录一个会导致配置行被剔除或设置被替换的问题
+     */
+    void error(Logger log, String format, Object... arguments) {
+        String message = MessageFormatter.arrayFormat(format, arguments).getMessage();
+        log.error(message);
+        problems.add(message);
+    }
+
+    /**
+     * 记录一个不影响执行、但结果可能与预期不同的问题
+     */
+    void warn(Logger log, String format, Object... arguments) {
+        String message = MessageFormatter.arrayFormat(format, arguments).getMessage();
+        log.warn(message);
+        problems.add(message);
+    }
+
+    /**
+     * @return 按发现顺序排列的问题
+     */
+    List<String> list() {
+        return Collections.unmodifiableList(problems);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName DeficitBucketSampler
+ * @Description 按占比补齐：每次选出 已产生次数/占比 最小的区间。
+ * 用按区间下标组织的最小堆维护该值，选择为 O(1)，计数后下沉为 O(log k)。
+ * 每个线程只保存次数和堆两个基本类型数组（每个区间 12 字节），比较时用共享快照中的占比倒数现场计算，不缓存。
+ * 占比更新时各区间的次数换成按旧占比计算的余量，之后按新占比继续补齐，历史数量不会影响新的占比
+ * @Version 1.0
+ */
+final class DeficitBucketSampler extends BucketSampler {
+
+    /**
+     * 各区间已产生次数，与原实现一致从 1 开始计数；占比更新后为余量加上之后产生的次数
+     */
+    private final double[] count;
+    /**
+     * 以区间下标组成的最小堆，堆顶为下一个要产生的区间
+     */
+    private final int[] heap;
+
+    /**
+     * 上次更新占比以来产生的总数
+     */
+    private long produced;
+
+    DeficitBucketSampler(BucketTable table, BucketWeights weights, RandomEngine random) {
+        super(table, weights, random);
+        int size = table.size();
+        count = new double[size];
+        heap = new int[size];
+        for (int i = 0; i < size; i++) {
+            count[i] = 1;
+        }
+        rebuild();
+    }
+
+    @Override
+    int nextBucket() {
+        if (heap.length == 0) {
+            return -1;
+        }
+        BucketWeights.Snapshot previous = snapshot;
+        if (refresh()) {
+            rebase(previous);
+        }
+        int bucket = heap[0];
+        count[bucket]++;
+        produced++;
+        siftDown(0);
+        return bucket;
+    }
+
+    /**
+     * 次数减去按旧占比应产生的数量，只保留不足一个周期的余量
+     */
+    private void rebase(BucketWeights.Snapshot previous) {
+        for (int i = 0; i < count.length; i++) {
+            count[i] -= produced * previous.normalized[i];
+        }
+        produced = 0;
+        rebuild();
+    }
+
+    private void rebuild() {
+        for (int i = 0; i < heap.length; i++) {
+            heap[i] = i;
+        }
+        for (int i = (heap.length >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * @return 次数 / 占比，占比为 0 的区间为正无穷，永远不会被选中
+     */
+    private double key(int bucket) {
+        double inverse = snapshot.inverse[bucket];
+        return inverse == 0 ? Double.POSITIVE_INFINITY : count[bucket] * inverse;
+    }
+
+    /**
+     * 值相同时按下标排序，保证选择顺序是确定的
+     */
+    private void siftDown(int index) {
+        int size = heap.length;
+        int bucket = heap[index];
+        double bucketKey = key(bucket);
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int childBucket = heap[child];
+            double childKey = key(childBucket);
+            int right = child + 1;
+            if (right < size) {
+                int rightBucket = heap[right];
+                double rightKey = key(rightBucket);
+                if (rightKey < childKey || (rightKey == childKey && rightBucket < childBucket)) {
+                    child = right;
+                    childBucket = rightBucket;
+                    childKey = rightKey;
+                }
+            }
+            if (!(childKey < bucketKey || (childKey == bucketKey && childBucket < bucket))) {
+                break;
+            }
+            heap[index] = childBucket;
+            index = child;
+        }
+        heap[index] = bucket;
+    }
+}
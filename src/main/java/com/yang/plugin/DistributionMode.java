@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName DistributionMode
+ * @Description 占比的统计范围
+ * @Version 1.0
+ */
+public enum DistributionMode {
+
+    /**
+     * 每个线程各自贴合配置占比
+     */
+    THREAD("每个线程"),
+
+    /**
+     * 所有线程产生的数据合起来贴合配置占比，适合线程短命或每个线程迭代次数较少的场景
+     */
+    GLOBAL("所有线程");
+
+    private final String label;
+
+    DistributionMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #THREAD}
+     *
+     * @param value 属性值
+     * @return 对应的模式
+     */
+    public static DistributionMode of(String value) {
+        return Enums.of(DistributionMode.class, value, THREAD);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.services.FileServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ClassName DistributionReport
+ * @Description 记录模式：每个线程为每个配置行持有一个 {@link ValueHistogram}，线程结束时合并到共享的汇总直方图后丢弃，
+ * 同时存活的线程才各占一份；测试结束时合并仍未结束的线程，按文件扩展名写出 JSON（.json）或 CSV 报告，包含各行的数量、占比、实际最小值、最大值、均值和分位数
+ * @Version 1.0
+ */
+final class DistributionReport {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributionReport.class);
+
+    private static final double[] QUANTILES = {0.5d, 0.9d, 0.95d, 0.99d, 0.999d};
+
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p95", "p99", "p99.9"};
+
+    private final String element;
+    private final String path;
+    private final VariableSpec[] specs;
+    /**
+     * 按变量取各区间已结束线程的汇总直方图，合并时锁住对应变量的数组
+     */
+    private final ValueHistogram[][] merged;
+    /**
+     * 尚未合并的各线程直方图及其变量下标，数组按引用比较
+     */
+    private final Map<ValueHistogram[], Integer> threads = new ConcurrentHashMap<>();
+
+    DistributionReport(String element, String path, VariableSpec[] specs) {
+        this.element = element;
+        this.path = path;
+        this.specs = specs;
+        this.merged = new ValueHistogram[specs.length][];
+        for (int i = 0; i < specs.length; i++) {
+            BucketTable table = specs[i].table;
+            merged[i] = new ValueHistogram[table.size()];
+            for (int bucket = 0; bucket < table.size(); bucket++) {
+                merged[i][bucket] = newHistogram(table, bucket);
+            }
+        }
+    }
+
+    /**
+     * 为当前线程创建并登记一个变量各配置行的直方图
+     *
+     * @param variable 变量下标
+     * @return 按区间下标排列的直方图
+     */
+    ValueHistogram[] newHistograms(int variable) {
+        BucketTable table = specs[variable].table;
+        ValueHistogram[] histograms = new ValueHistogram[table.size()];
+        for (int bucket = 0; bucket < histograms.length; bucket++) {
+            histograms[bucket] = newHistogram(table, bucket);
+        }
+        threads.put(histograms, variable);
+        return histograms;
+    }
+
+    /**
+     * 把一个线程的直方图合并到汇总中，之后不再持有该线程的直方图；重复调用时忽略
+     *
+     * @param histograms {@link #newHistograms} 返回的直方图
+     */
+    void merge(ValueHistogram[] histograms) {
+        Integer variable = threads.remove(histograms);
+        if (variable == null) {
+            return;
+        }
+        ValueHistogram[] target = merged[variable];
+        synchronized (target) {
+            for (int bucket = 0; bucket < histograms.length; bucket++) {
+                target[bucket].add(histograms[bucket]);
+            }
+        }
+    }
+
+    private static ValueHistogram newHistogram(BucketTable table, int bucket) {
+        switch (table.kind(bucket)) {
+            case INT:
+            case LONG:
+                return new ValueHistogram(table.min(bucket), table.max(bucket), true, true);
+            case VALUE:
+                return new ValueHistogram(0, 0, false, false);
+            case FILE:
+                BucketFile file = table.file(bucket);
+                // 含枚举值的文件只计数
+                return new ValueHistogram(file.min(), file.max(), file.allInteger(), !file.hasValues());
+            case DOUBLE:
+            default:
+                return new ValueHistogram(table.min(bucket), table.max(bucket), false, true);
+        }
+    }
+
+    /**
+     * 合并仍未结束的线程的直方图并写出报告，测试结束、所有线程退出后调用
+     */
+    void write() {
+        for (ValueHistogram[] histograms : threads.keySet()) {
+            merge(histograms);
+        }
+        Path file = Paths.get(FileServer.resolveBaseRelativeName(path));
+        boolean json = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                if (json) {
+                    writeJson(writer, merged);
+                } else {
+                    writeCsv(writer, merged);
+                }
+            }
+            log.info("Wrote value distribution report of {} to {}", element, file.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to write value distribution report of {} to {}", element, file, e);
+        }
+    }
+
+    private static long total(ValueHistogram[] histograms) {
+        long total = 0;
+        for (ValueHistogram histogram : histograms) {
+            total += histogram.count();
+        }
+        return total;
+    }
+
+    private void writeCsv(Writer writer, ValueHistogram[][] merged) throws IOException {
+        writer.write("variable,row,type,count,percent,min,max,mean");
+        for (String name : QUANTILE_NAMES) {
+            writer.write(',');
+            writer.write(name);
+        }
+        writer.write('\n');
+        for (int i = 0; i < specs.length; i++) {
+            BucketTable table = specs[i].table;
+            long total = total(merged[i]);
+            for (int bucket = 0; bucket < table.size(); bucket++) {
+                ValueHistogram histogram = merged[i][bucket];
+                writer.write(csv(specs[i].name));
+                writer.write(',' + Integer.toString(table.row(bucket) + 1));
+                writer.write(',' + table.kind(bucket).name());
+                writer.write(',' + Long.toString(histogram.count()));
+                writer.write(',' + percent(histogram.count(), total));
+                writer.write(',' + number(histogram, histogram.min()));
+                writer.write(',' + number(histogram, histogram.max()));
+                writer.write(',' + number(histogram.mean()));
+                for (double quantile : QUANTILES) {
+                    writer.write(',' + number(histogram, histogram.percentile(quantile)));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    private void writeJson(Writer writer, ValueHistogram[][] merged) throws IOException {
+        writer.write("{\"element\":" + json(element) + ",\"variables\":[");
+        for (int i = 0; i < specs.length; i++) {
+            BucketTable table = specs[i].table;
+            long total = total(merged[i]);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("  {\"name\":" + json(specs[i].name) + ",\"count\":" + total + ",\"rows\":[");
+            for (int bucket = 0; bucket < table.size(); bucket++) {
+                ValueHistogram histogram = merged[i][bucket];
+                writer.write(bucket == 0 ? "\n" : ",\n");
+                writer.write("    {\"row\":" + (table.row(bucket) + 1)
+                        + ",\"type\":\"" + table.kind(bucket).name() + '"'
+                        + ",\"count\":" + histogram.count()
+                        + ",\"percent\":" + percent(histogram.count(), total));
+                if (histogram.numeric() && histogram.count() > 0) {
+                    writer.write(",\"min\":" + number(histogram, histogram.min())
+                            + ",\"max\":" + number(histogram, histogram.max())
+                            + ",\"mean\":" + number(histogram.mean()));
+                    for (int q = 0; q < QUANTILES.length; q++) {
+                        writer.write(",\"" + QUANTILE_NAMES[q] + "\":"
+                                + number(histogram, histogram.percentile(QUANTILES[q])));
+                    }
+                }
+                writer.write('}');
+            }
+            writer.write("\n  ]}");
+        }
+        writer.write("\n]}\n");
+    }
+
+    private static String percent(long count, long total) {
+        return total == 0 ? "0" : String.format(Locale.ROOT, "%.4f", count * 100.0d / total);
+    }
+
+    private static String number(ValueHistogram histogram, double value) {
+        if (histogram.integer() && !Double.isNaN(value)) {
+            return Long.toString((long) value);
+        }
+        return number(value);
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "" : Double.toString(value);
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName DistributionType
+ * @Description 配置行内的取值分布，参数在“分布参数”列中以逗号分隔
+ * @Version 1.0
+ */
+public enum DistributionType {
+
+    /**
+     * 均匀分布，无参数
+     */
+    UNIFORM("均匀"),
+
+    /**
+     * 正态分布：均值,标准差，默认为区间中点和区间宽度的 1/6
+     */
+    NORMAL("正态"),
+
+    /**
+     * 从极小值开始的指数分布：速率 λ，默认 4/(极大值-极小值)
+     */
+    EXPONENTIAL("指数"),
+
+    /**
+     * 对数正态分布：μ,σ（对应正态分布的参数）。极小值大于 0 时默认 μ 为 ln 极小值与 ln 极大值的中点、
+     * σ 为两者之差的 1/6；极小值不大于 0 时没有默认值，必须填写参数
+     */
+    LOG_NORMAL("对数正态"),
+
+    /**
+     * Zipf 分布：指数 s，默认 1。极小值的排名为 1，排名越靠后概率越低；枚举值按填写顺序排名
+     */
+    ZIPF("Zipf");
+
+    private final String label;
+
+    DistributionType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #UNIFORM}
+     *
+     * @param value 属性值
+     * @return 对应的分布
+     */
+    public static DistributionType of(String value) {
+        return Enums.of(DistributionType.class, value, UNIFORM);
+    }
+
+    /**
+     * 编译配置行时解析属性值，空值使用默认的 {@link #UNIFORM}，无法识别的值视为配置错误
+     *
+     * @param value 属性值
+     * @return 对应的分布
+     * @throws IllegalArgumentException 属性值非空且无法识别
+     */
+    static DistributionType parse(String value) {
+        return Enums.require(DistributionType.class, value, UNIFORM);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @ClassName EnginePartition
+ * @Description 分布式测试中当前引擎的序号和引擎总数，由此推导出各引擎互不重叠的号码、种子和不重复取值的子区间，
+ * 所有引擎合起来贴合配置的占比，运行时不需要任何网络协调。
+ * 元件上未填写时读取 JMeter 属性 random.engine.index 和 random.engine.count，只有一个引擎时不做任何划分
+ * @Version 1.0
+ */
+final class EnginePartition {
+
+    private static final Logger log = LoggerFactory.getLogger(EnginePartition.class);
+
+    static final String INDEX_PROPERTY = "random.engine.index";
+    static final String COUNT_PROPERTY = "random.engine.count";
+
+    static final EnginePartition SINGLE = new EnginePartition(0, 1);
+
+    final int index;
+    final int count;
+
+    private EnginePartition(int index, int count) {
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @param element  随机数元件
+     * @param problems 收集无效的配置
+     * @return 当前引擎的划分，未配置或配置无效时为 {@link #SINGLE}
+     */
+    static EnginePartition of(RandomParameterElement element, CompileProblems problems) {
+        String indexText = text(element.getEngineIndex(), INDEX_PROPERTY);
+        String countText = text(element.getEngineCount(), COUNT_PROPERTY);
+        if (countText.isEmpty()) {
+            return SINGLE;
+        }
+        try {
+            int count = Integer.parseInt(countText);
+            int index = indexText.isEmpty() ? 0 : Integer.parseInt(indexText);
+            if (count < 1 || index < 0 || index >= count) {
+                problems.error(log, "Invalid engine index {} of {} in {}, ignoring partitioning", index, count,
+                        element.getName());
+                return SINGLE;
+            }
+            return count == 1 ? SINGLE : new EnginePartition(index, count);
+        } catch (NumberFormatException e) {
+            problems.error(log, "Invalid engine index '{}' or count '{}' in {}, ignoring partitioning", indexText,
+                    countText, element.getName());
+            return SINGLE;
+        }
+    }
+
+    private static String text(String value, String property) {
+        String text = value.trim();
+        return text.isEmpty() ? JMeterUtils.getPropDefault(property, "").trim() : text;
+    }
+
+    boolean partitioned() {
+        return count > 1;
+    }
+
+    /**
+     * @param seed 元件的种子
+     * @return 当前引擎使用的种子，各引擎的线程产生互不相同的序列；只有一个引擎时不变
+     */
+    long seed(long seed) {
+        return partitioned() ? RandomEngine.mix64(seed + (index + 1) * RandomEngine.GOLDEN_GAMMA) : seed;
+    }
+
+    /**
+     * 全局号码按引擎交错分配：本引擎的第 n 个号码为 n * count + index，所有引擎合起来正好是连续的号码
+     *
+     * @param ticket 本引擎内的号码
+     * @return 全局号码
+     */
+    long ticket(long ticket) {
+        return ticket * count + index;
+    }
+
+    /**
+     * @param size 区间的取值个数
+     * @return 本引擎负责的连续子区间的起点，各引擎的子区间大小最多相差 1
+     */
+    long start(long size) {
+        return size / count * index + Math.min(index, size % count);
+    }
+
+    /**
+     * @param size 区间的取值个数
+     * @return 本引擎负责的子区间的取值个数
+     */
+    long length(long size) {
+        return size / count + (index < size % count ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName Enums
+ * @Description 属性中以常量名保存、界面上显示中文名的各枚举共用的解析方法
+ * @Version 1.0
+ */
+final class Enums {
+
+    private Enums() {
+    }
+
+    /**
+     * 按常量名解析属性值，不区分大小写
+     *
+     * @param type         枚举类型
+     * @param value        属性值，可以为 null
+     * @param defaultValue 空值或无法识别时使用的默认值
+     * @return 对应的常量
+     */
+    static <E extends Enum<E>> E of(Class<E> type, String value, E defaultValue) {
+        E constant = find(type, value);
+        return constant == null ? defaultValue : constant;
+    }
+
+    /**
+     * 按常量名解析属性值，不区分大小写；与 {@link #of} 不同，无法识别的非空值视为配置错误
+     *
+     * @param type         枚举类型
+     * @param value        属性值，可以为 null
+     * @param defaultValue 空值时使用的默认值
+     * @return 对应的常量
+     * @throws IllegalArgumentException 属性值非空且不是任何常量名
+     */
+    static <E extends Enum<E>> E require(Class<E> type, String value, E defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        E constant = find(type, value);
+        if (constant == null) {
+            throw new IllegalArgumentException("unknown " + type.getSimpleName() + " '" + value + "'");
+        }
+        return constant;
+    }
+
+    /**
+     * 按常量名查找，不区分大小写，忽略首尾空白
+     *
+     * @param type  枚举类型
+     * @param value 属性值，可以为 null
+     * @return 对应的常量，空值或无法识别时为 null
+     */
+    static <E extends Enum<E>> E find(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        String name = value.trim();
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName FeistelPermutation
+ * @Description [0, size) 上由密钥决定的伪随机置换。在不小于 size 的 2 的偶数次幂上做 4 轮 Feistel 加密，
+ * 结果超出范围时继续加密（cycle walking），仍是 [0, size) 上的一一映射。
+ * 按下标依次取值即可不重复地遍历整个区间，只需 O(1) 内存，不需要记录已取过的值
+ * @Version 1.0
+ */
+final class FeistelPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] keys = new long[ROUNDS];
+
+    /**
+     * @param size 区间大小，大于 0，按无符号数处理
+     * @param key  密钥
+     */
+    FeistelPermutation(long size, long key) {
+        this.size = size;
+        int bits = size == 1 ? 1 : 64 - Long.numberOfLeadingZeros(size - 1);
+        // 两半等宽，加密域不超过 4 * size，cycle walking 平均不超过 4 次
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        for (int round = 0; round < ROUNDS; round++) {
+            keys[round] = RandomEngine.mix64(key + (round + 1) * RandomEngine.GOLDEN_GAMMA);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @param index [0, size) 内的下标
+     * @return 置换后的下标，同样在 [0, size) 内
+     */
+    long apply(long index) {
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (Long.compareUnsigned(value, size) >= 0);
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long key : keys) {
+            long next = left ^ (RandomEngine.mix64(right ^ key) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName GenerationMode
+ * @Description 变量值的生成时机
+ * @Version 1.0
+ */
+public enum GenerationMode {
+
+    /**
+     * 每次迭代开始时生成全部变量
+     */
+    EAGER("每次迭代生成"),
+
+    /**
+     * 迭代开始时只写入占位对象，变量在本次迭代中第一次被读取时才生成，之后保持不变
+     */
+    LAZY("首次读取时生成");
+
+    private final String label;
+
+    GenerationMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #EAGER}
+     *
+     * @param value 属性值
+     * @return 对应的生成时机
+     */
+    public static GenerationMode of(String value) {
+        return Enums.of(GenerationMode.class, value, EAGER);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
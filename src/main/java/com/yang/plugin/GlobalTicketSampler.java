@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName GlobalTicketSampler
+ * @Description 全局占比模式：从共享的 {@link TicketDispenser} 按批领取号码，号码决定区间，批内选择不访问共享状态
+ * @Version 1.0
+ */
+final class GlobalTicketSampler extends BucketSampler {
+
+    private final TicketDispenser dispenser;
+    private final EnginePartition partition;
+    private long next;
+    private long end;
+
+    GlobalTicketSampler(BucketTable table, BucketWeights weights, TicketDispenser dispenser, RandomEngine random) {
+        super(table, weights, random);
+        this.dispenser = dispenser;
+        this.partition = dispenser.partition;
+    }
+
+    @Override
+    int nextBucket() {
+        if (table.size() == 0) {
+            return -1;
+        }
+        if (next == end) {
+            refill();
+        }
+        refresh();
+        return TicketDispenser.bucket(partition.ticket(next++), snapshot.cumulative);
+    }
+
+    private void refill() {
+        long[] range = dispenser.pollReturned();
+        if (range != null) {
+            next = range[0];
+            end = range[1];
+            return;
+        }
+        int batch = dispenser.batchSize();
+        next = dispenser.claim(batch);
+        end = next + batch;
+    }
+
+    @Override
+    void release() {
+        if (next < end) {
+            dispenser.giveBack(next, end);
+        }
+        next = end;
+    }
+}
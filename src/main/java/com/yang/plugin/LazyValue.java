@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName LazyValue
+ * @Description 延迟生成模式下写入变量的占位对象。JMeterVariables.get 对非字符串的值调用 toString，
+ * 因此 ${变量名} 第一次被读取时才生成，同一次迭代中之后的读取返回同一个值；
+ * 联合行的变量读取任一个时整组生成。每个线程每个变量一个，迭代间复用
+ * @Version 1.0
+ */
+final class LazyValue {
+
+    private final ValueGenerator generator;
+    private final int member;
+
+    /**
+     * @param generator 变量所在组的生成状态
+     * @param member    变量在组内的下标
+     */
+    LazyValue(ValueGenerator generator, int member) {
+        this.generator = generator;
+        this.member = member;
+    }
+
+    @Override
+    public String toString() {
+        return generator.current(member);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName Pcg32Engine
+ * @Description PCG-XSH-RR 64/32 引擎（O'Neill），64 位输出由两次 32 位输出拼接
+ * @Version 1.0
+ */
+final class Pcg32Engine extends RandomEngine {
+
+    private static final long MULTIPLIER = 6364136223846793005L;
+
+    private long state;
+    private final long increment;
+
+    Pcg32Engine(long seed) {
+        // 用种子同时派生初始状态和流编号，不同种子得到不同的序列
+        this.increment = (seed * GOLDEN_GAMMA << 1) | 1L;
+        this.state = 0L;
+        next();
+        this.state += seed;
+        next();
+    }
+
+    private int next() {
+        long old = state;
+        state = old * MULTIPLIER + increment;
+        int xorShifted = (int) (((old >>> 18) ^ old) >>> 27);
+        int rot = (int) (old >>> 59);
+        return Integer.rotateRight(xorShifted, rot);
+    }
+
+    @Override
+    long nextLong() {
+        return ((long) next() << 32) | (next() & 0xFFFFFFFFL);
+    }
+}
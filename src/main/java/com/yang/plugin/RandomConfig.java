@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.services.FileServer;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName RandomConfig
+ * @Description 测试开始时由元件属性编译出的只读配置，所有线程共享；线程只需据此创建自己的计数状态
+ * @Version 1.0
+ */
+final class RandomConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RandomConfig.class);
+
+    /**
+     * 全局模式下默认允许的占比偏差
+     */
+    static final double DEFAULT_TOLERANCE = 0.01d;
+
+    /**
+     * 每个用户的状态保存在用户变量中，键为该前缀加编译序号
+     */
+    static final String STATE_KEY_PREFIX = "__random.state.";
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final String stateKey = STATE_KEY_PREFIX + SEQUENCE.incrementAndGet();
+
+    private final String elementName;
+    private final VariableSpec[] variables;
+    /**
+     * 按生成组划分的变量及全部变量名，所有用户的状态共用，不再各自复制
+     */
+    private final VariableSpec[][] groups;
+    private final String[] names;
+    private final RandomEngineType engineType;
+    private final boolean seeded;
+    private final long seed;
+    private final int bufferSize;
+    private final int refillWatermark;
+    private final boolean lazy;
+    /**
+     * 占比统计的写入间隔（秒），不大于 0 时不统计
+     */
+    private final int statisticsInterval;
+    private final RatioStatistics statistics;
+    /**
+     * 取值分布报告，未设置报告文件时为 null
+     */
+    private final DistributionReport report;
+    /**
+     * 占比计划，未配置时为 null
+     */
+    private final RatioSchedule schedule;
+    /**
+     * 录制的序列文件，不录制时为 null；测试开始时才创建文件，校验时不会覆盖已有的录制
+     */
+    private final Path recordPath;
+    private SequenceWriter writer;
+    /**
+     * 回放的序列文件，不回放或文件无法使用时为 null
+     */
+    private final SequenceReader reader;
+    /**
+     * 编译时发现的问题，已在编译时记录日志
+     */
+    private final CompileProblems problems;
+
+    /**
+     * 读取并解析元件的全部属性，每次测试只执行一次
+     */
+    private RandomConfig(RandomParameterElement element, CompileProblems problems) {
+        this.problems = problems;
+        String name = element.getName();
+        this.elementName = name;
+        String seedText = element.getSeed().trim();
+        boolean validSeed = false;
+        long parsedSeed = 0;
+        if (!seedText.isEmpty()) {
+            try {
+                parsedSeed = Long.parseLong(seedText);
+                validSeed = true;
+            } catch (NumberFormatException e) {
+                problems.error(log, "Invalid seed '{}' in {}, each thread will be seeded randomly", seedText, name);
+            }
+        }
+        EnginePartition partition = EnginePartition.of(element, problems);
+        if (partition.partitioned()) {
+            log.info("{} runs as engine {}", name, partition);
+        }
+        this.seeded = validSeed;
+        RandomEngineType engine = RandomEngineType.of(element.getRandomEngine());
+        if (validSeed && engine == RandomEngineType.THREAD_LOCAL_RANDOM) {
+            // ThreadLocalRandom 无法指定种子
+            problems.warn(log, "{} cannot be seeded, {} uses {} for the seed {}", engine,
+                    name, RandomEngineType.SPLITTABLE_RANDOM, parsedSeed);
+            engine = RandomEngineType.SPLITTABLE_RANDOM;
+        }
+        this.engineType = engine;
+        // 分布式测试中各引擎由同一个种子派生出不同的种子
+        this.seed = partition.seed(parsedSeed);
+        double tolerance = parseDouble(problems, name, "global tolerance", element.getGlobalTolerance(),
+                DEFAULT_TOLERANCE);
+        if (!(tolerance > 0 && tolerance < 1)) {
+            // 容差决定全局发号的批量，超出 (0, 1) 时批量退化为 1 或大到失去意义
+            problems.error(log, "Global tolerance {} in {} must be between 0 and 1 exclusive, using {}",
+                    tolerance, name, DEFAULT_TOLERANCE);
+            tolerance = DEFAULT_TOLERANCE;
+        }
+        this.variables = VariableSpec.compile(element, SamplingStrategy.of(element.getSamplingStrategy()),
+                DistributionMode.of(element.getDistributionMode()) == DistributionMode.GLOBAL, tolerance,
+                UniqueMode.of(element.getUniqueMode()),
+                uniqueKey(name, validSeed, parsedSeed, partition), partition, problems);
+        List<VariableSpec[]> grouped = new ArrayList<>();
+        this.names = new String[variables.length];
+        for (int i = 0; i < variables.length; i += variables[i].members) {
+            grouped.add(Arrays.copyOfRange(variables, i, i + variables[i].members));
+        }
+        for (int i = 0; i < variables.length; i++) {
+            names[i] = variables[i].name;
+        }
+        this.groups = grouped.toArray(new VariableSpec[0][]);
+        this.bufferSize = Math.max(0, parseInt(problems, name, "buffer size", element.getBufferSize(), 0));
+        this.refillWatermark = Math.max(0, Math.min(bufferSize - 1,
+                parseInt(problems, name, "refill watermark", element.getRefillWatermark(), bufferSize / 4)));
+        SequenceMode sequenceMode = SequenceMode.of(element.getSequenceMode());
+        String sequenceFile = element.getSequenceFile().trim();
+        if (sequenceMode != SequenceMode.OFF && sequenceFile.isEmpty()) {
+            problems.error(log, "No value sequence file is set in {}, values are neither recorded nor replayed", name);
+            sequenceMode = SequenceMode.OFF;
+        }
+        Path sequencePath = sequenceMode == SequenceMode.OFF ? null
+                : Paths.get(FileServer.resolveBaseRelativeName(sequenceFile));
+        this.recordPath = sequenceMode == SequenceMode.RECORD ? sequencePath : null;
+        this.reader = sequenceMode == SequenceMode.REPLAY
+                ? SequenceReader.open(name, sequencePath, names, problems) : null;
+        boolean lazy = GenerationMode.of(element.getGenerationMode()) == GenerationMode.LAZY;
+        if (lazy && recordPath != null) {
+            // 延迟生成时未读取的变量没有取值，录制时每次迭代都生成全部变量
+            problems.warn(log, "Values of {} are generated eagerly while recording", name);
+            lazy = false;
+        }
+        this.lazy = lazy;
+        this.statisticsInterval = parseInt(problems, name, "statistics interval",
+                element.getStatisticsInterval(), 0);
+        this.statistics = statisticsInterval > 0 ? new RatioStatistics(name, variables) : null;
+        String reportPath = element.getHistogramReport().trim();
+        this.report = reportPath.isEmpty() ? null : new DistributionReport(name, reportPath, variables);
+        this.schedule = RatioSchedule.compile(element, problems);
+    }
+
+    /**
+     * @param element 随机数元件
+     * @return 编译后的配置
+     */
+    static RandomConfig compile(RandomParameterElement element) {
+        return new RandomConfig(element, new CompileProblems());
+    }
+
+    /**
+     * 不启动测试，只编译一次元件并返回发现的问题，供界面上的校验按钮和命令行检查测试计划使用。
+     * 校验没有副作用：不写区间文件的缓存，不映射区间文件和序列文件
+     *
+     * @param element 随机数元件
+     * @return 按发现顺序排列的问题，没有问题时为空
+     */
+    static List<String> validate(RandomParameterElement element) {
+        return new RandomConfig(element, new CompileProblems(true)).problems();
+    }
+
+    /**
+     * @return 编译时发现的问题
+     */
+    List<String> problems() {
+        return problems.list();
+    }
+
+    /**
+     * 设置种子时全局置换也固定，两次执行产生相同的取值顺序；分布式测试中各引擎必须使用相同的置换，
+     * 未设置种子时由元件名派生
+     */
+    private static long uniqueKey(String name, boolean seeded, long seed, EnginePartition partition) {
+        if (seeded) {
+            return seed;
+        }
+        if (partition.partitioned()) {
+            return RandomEngine.mix64(name.hashCode());
+        }
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static double parseDouble(CompileProblems problems, String element, String property, String text,
+                                      double defaultValue) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            problems.error(log, "Invalid {} '{}' in {}, using {}", property, value, element, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static int parseInt(CompileProblems problems, String element, String property, String text,
+                                int defaultValue) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            problems.error(log, "Invalid {} '{}' in {}, using {}", property, value, element, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 测试开始时调用，启动占比计划，启用统计时开始定时写入
+     */
+    void start() {
+        if (recordPath != null) {
+            try {
+                writer = SequenceWriter.open(elementName, recordPath, names);
+            } catch (IOException e) {
+                log.error("Failed to create the value sequence {}, values are not recorded", recordPath, e);
+            }
+        }
+        if (reader != null) {
+            reader.start();
+        }
+        if (schedule != null) {
+            schedule.start(variables);
+        }
+        if (statistics != null) {
+            statistics.start(statisticsInterval);
+        }
+    }
+
+    /**
+     * 测试结束时调用，写入最终的统计和取值分布报告
+     */
+    void stop() {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        if (reader != null) {
+            reader.stop();
+        }
+        if (schedule != null) {
+            schedule.stop();
+        }
+        if (statistics != null) {
+            statistics.stop();
+        }
+        if (report != null) {
+            report.write();
+        }
+    }
+
+    /**
+     * 取出用户的状态，第一次使用时创建。状态随 {@link JMeterVariables} 保存在用户自己的上下文中，
+     * 不依赖执行它的线程，虚拟线程下不需要 ThreadLocal，一次哈希查找即可取到
+     *
+     * @param variables 当前用户的变量
+     * @return 该用户独占的状态
+     */
+    RandomState state(JMeterVariables variables) {
+        return state(variables, stateKey);
+    }
+
+    /**
+     * 按指定的键取出用户的状态，键下保存的是其他配置的状态时（函数参数变化后重新编译）释放并替换
+     *
+     * @param variables 当前用户的变量
+     * @param key       保存状态的键
+     * @return 该用户独占的状态
+     */
+    RandomState state(JMeterVariables variables, String key) {
+        Object stored = variables.getObject(key);
+        if (stored instanceof RandomState) {
+            RandomState state = (RandomState) stored;
+            if (state.owner == this) {
+                return state;
+            }
+            state.release();
+        }
+        RandomState state = newState();
+        variables.putObject(key, state);
+        return state;
+    }
+
+    /**
+     * 用户结束时调用，释放并移除它的状态
+     *
+     * @param variables 当前用户的变量
+     */
+    void release(JMeterVariables variables) {
+        Object state = variables.remove(stateKey);
+        if (state != null) {
+            ((RandomState) state).release();
+        }
+    }
+
+    /**
+     * 为当前线程创建状态，在线程内调用
+     *
+     * @return 当前线程独占的状态
+     */
+    RandomState newState() {
+        RandomEngine random = newRandomEngine();
+        // 同一用户的各组依次生成，共用一个输出缓冲
+        StringBuilder buffer = new StringBuilder(32);
+        ValueGenerator[] generators = new ValueGenerator[groups.length];
+        int variable = 0;
+        for (int group = 0; group < groups.length; group++) {
+            int members = groups[group].length;
+            LongAdder[] counters = statistics == null ? null : statistics.counters(variable);
+            ValueHistogram[][] histograms = report == null ? null : new ValueHistogram[members][];
+            for (int member = 0; member < members; member++) {
+                if (histograms != null) {
+                    histograms[member] = report.newHistograms(variable + member);
+                }
+            }
+            generators[group] = new ValueGenerator(groups[group], random, buffer, bufferSize, refillWatermark,
+                    counters, histograms, report);
+            variable += members;
+        }
+        SequenceWriter sequenceWriter = writer;
+        SequenceWriter.Recorder recorder = sequenceWriter == null ? null : sequenceWriter.newRecorder(streamName());
+        SequenceReader.Cursor replay = reader == null ? null : reader.newCursor(streamName());
+        return new RandomState(this, names, generators, lazy, recorder, replay);
+    }
+
+    /**
+     * 录制和回放按 JMeter 的线程名对应线程。线程名为 线程组名 组序号-线程号，组序号按线程组在计划中的顺序分配，
+     * 同名的线程组也不会写入同一个序列；两次执行的线程配置相同时每个线程回放自己录制的取值
+     */
+    private static String streamName() {
+        JMeterContext context = JMeterContextService.getContext();
+        JMeterThread thread = context.getThread();
+        if (thread != null && thread.getThreadName() != null) {
+            return thread.getThreadName();
+        }
+        String group = context.getThreadGroup() == null ? "" : context.getThreadGroup().getName();
+        return group + "-" + context.getThreadNum();
+    }
+
+    /**
+     * 未设置种子时每个线程随机初始化；设置种子后按线程组名和线程号派生各线程的种子，
+     * 同一计划的两次执行中每个线程产生相同的序列
+     */
+    private RandomEngine newRandomEngine() {
+        if (!seeded) {
+            return engineType.create();
+        }
+        JMeterContext context = JMeterContextService.getContext();
+        String group = context.getThreadGroup() == null ? null : context.getThreadGroup().getName();
+        return engineType.create(RandomEngine.threadSeed(seed, group, context.getThreadNum()));
+    }
+}
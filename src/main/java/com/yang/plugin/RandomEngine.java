@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName RandomEngine
+ * @Description 随机数引擎，每个线程持有自己的实例，迭代过程中不与其他线程竞争同一个种子
+ * @Version 1.0
+ */
+abstract class RandomEngine {
+
+    /**
+     * SplitMix64 的步长
+     */
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * SplitMix64 的输出混合函数
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 由全局种子为每个线程派生独立的种子，相当于 new SplittableRandom(seed) 的第 n 个输出，
+     * n 由线程组名和线程号决定，与线程启动顺序无关，O(1) 且不需要共享状态
+     *
+     * @param seed      全局种子
+     * @param group     线程组名，可为 null
+     * @param threadNum 线程在线程组中的序号
+     * @return 该线程的种子
+     */
+    static long threadSeed(long seed, String group, int threadNum) {
+        long stream = ((long) (group == null ? 0 : group.hashCode()) << 32) | (threadNum & 0xFFFFFFFFL);
+        return mix64(seed + (stream + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return 均匀分布的 64 位随机数
+     */
+    abstract long nextLong();
+
+    /**
+     * @return [0, 1) 内均匀分布的随机数
+     */
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @param origin 下界（包含）
+     * @param bound  上界（不包含），与下界相等时总是返回下界
+     * @return [origin, bound) 内均匀分布的随机数
+     */
+    double nextDouble(double origin, double bound) {
+        double r = origin + nextDouble() * (bound - origin);
+        return r < bound || !(origin < bound) ? r : Math.nextDown(bound);
+    }
+
+    /**
+     * Lemire 乘法取区间，绝大多数情况下不需要取模
+     *
+     * @param bound 上界（不包含），必须大于 0
+     * @return [0, bound) 内均匀分布的随机数
+     */
+    int nextInt(int bound) {
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * @param bound 上界（不包含），必须大于 0
+     * @return [0, bound) 内均匀分布的随机数
+     */
+    long nextLong(long bound) {
+        long r = nextLong();
+        long m = bound - 1;
+        if ((bound & m) == 0L) {
+            return r & m;
+        }
+        long u = r >>> 1;
+        while (u + m - (r = u % bound) < 0L) {
+            u = nextLong() >>> 1;
+        }
+        return r;
+    }
+}
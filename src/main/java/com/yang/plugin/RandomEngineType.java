@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @ClassName RandomEngineType
+ * @Description 可选的随机数引擎
+ * @Version 1.0
+ */
+public enum RandomEngineType {
+
+    THREAD_LOCAL_RANDOM("ThreadLocalRandom"),
+
+    SPLITTABLE_RANDOM("SplittableRandom"),
+
+    XOSHIRO256PP("xoshiro256++"),
+
+    PCG32("PCG32");
+
+    private final String label;
+
+    RandomEngineType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 为当前线程创建引擎，种子取自当前线程的 {@link ThreadLocalRandom}
+     *
+     * @return 当前线程独占的引擎
+     */
+    RandomEngine create() {
+        if (this == THREAD_LOCAL_RANDOM) {
+            return ThreadLocalRandomEngine.INSTANCE;
+        }
+        return create(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed 种子
+     * @return 以指定种子初始化的引擎
+     */
+    RandomEngine create(long seed) {
+        switch (this) {
+            case XOSHIRO256PP:
+                return new Xoshiro256PlusPlusEngine(seed);
+            case PCG32:
+                return new Pcg32Engine(seed);
+            case SPLITTABLE_RANDOM:
+            case THREAD_LOCAL_RANDOM:
+            default:
+                // ThreadLocalRandom 无法指定种子，使用同样基于 SplitMix64 的 SplittableRandom
+                return new SplittableRandomEngine(seed);
+        }
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #THREAD_LOCAL_RANDOM}
+     *
+     * @param value 属性值
+     * @return 对应的引擎类型
+     */
+    public static RandomEngineType of(String value) {
+        return Enums.of(RandomEngineType.class, value, THREAD_LOCAL_RANDOM);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -39,6 +39,16 @@ public class RandomParameter extends AbstractTestElement implements Serializable
 
     static final String HRATIO = "RandomParameter.ratio"; //$NON-NLS-1$
 
+    static final String HVARIABLE = "RandomParameter.variable"; //$NON-NLS-1$
+
+    static final String HFORMAT = "RandomParameter.format"; //$NON-NLS-1$
+
+    static final String HTYPE = "RandomParameter.type"; //$NON-NLS-1$
+
+    static final String HDISTRIBUTION = "RandomParameter.distribution"; //$NON-NLS-1$
+
+    static final String HPARAMETERS = "RandomParameter.parameters"; //$NON-NLS-1$
+
     /**
      * Create the header. Uses an empty name and value as default
      */
@@ -48,9 +58,19 @@ public class RandomParameter extends AbstractTestElement implements Serializable
 
 
     public RandomParameter(String min, String max, String ratio) {
+        this(min, max, ratio, "", ""); //$NON-NLS-1$ $NON-NLS-2$
+    }
+
+    /**
+     * @param variable 变量名，为空时使用元件的变量名
+     * @param format   格式，为空时使用元件的格式
+     */
+    public RandomParameter(String min, String max, String ratio, String variable, String format) {
         this.setHmax(max);
         this.setHmin(min);
         this.setHratio(ratio);
+        this.setHvariable(variable);
+        this.setHformat(format);
     }
 
     public String getHmin(){
@@ -76,4 +96,72 @@ public class RandomParameter extends AbstractTestElement implements Serializable
     public void setHratio(String ratio){
         this.setProperty(HRATIO, ratio);
     }
+
+    public String getHvariable(){
+        return getPropertyAsString(HVARIABLE);
+    }
+
+    public void setHvariable(String variable){
+        this.setProperty(HVARIABLE, variable);
+    }
+
+    public String getHformat(){
+        return getPropertyAsString(HFORMAT);
+    }
+
+    public void setHformat(String format){
+        this.setProperty(HFORMAT, format);
+    }
+
+    public String getHtype(){
+        return getPropertyAsString(HTYPE);
+    }
+
+    public void setHtype(String type){
+        this.setProperty(HTYPE, type);
+    }
+
+    public String getHdistribution(){
+        return getPropertyAsString(HDISTRIBUTION);
+    }
+
+    public void setHdistribution(String distribution){
+        this.setProperty(HDISTRIBUTION, distribution);
+    }
+
+    public String getHparameters(){
+        return getPropertyAsString(HPARAMETERS);
+    }
+
+    public void setHparameters(String parameters){
+        this.setProperty(HPARAMETERS, parameters);
+    }
+
+    /**
+     * 联合行中一个变量对应的配置：极小值、极大值、格式、类型、分布和分布参数各列用 ; 分隔，依次对应变量列中的各变量，
+     * 某列只有一项时所有变量共用，占比为整行共用
+     *
+     * @param member  变量在变量列中的下标
+     * @param members 变量列中的变量个数
+     * @return 该变量的配置，只有一个变量时返回自身
+     */
+    RandomParameter member(int member, int members) {
+        if (members == 1) {
+            return this;
+        }
+        RandomParameter parameter = new RandomParameter(part(getHmin(), member), part(getHmax(), member),
+                getHratio(), "", part(getHformat(), member));
+        parameter.setHtype(part(getHtype(), member));
+        parameter.setHdistribution(part(getHdistribution(), member));
+        parameter.setHparameters(part(getHparameters(), member));
+        return parameter;
+    }
+
+    private static String part(String value, int member) {
+        String[] parts = value.split(";", -1);
+        if (parts.length == 1) {
+            return value;
+        }
+        return member < parts.length ? parts[member].trim() : "";
+    }
 }
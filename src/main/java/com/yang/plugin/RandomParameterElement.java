@@ -17,21 +17,20 @@
 
 package com.yang.plugin;
 
-import org.apache.commons.lang3.RandomUtils;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.engine.event.LoopIterationEvent;
 import org.apache.jmeter.engine.event.LoopIterationListener;
 import org.apache.jmeter.engine.util.NoConfigMerge;
 import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.testbeans.TestBean;
+import org.apache.jmeter.testelement.TestStateListener;
 import org.apache.jmeter.testelement.ThreadListener;
 import org.apache.jmeter.testelement.property.CollectionProperty;
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.JMeterVariables;
 
 import java.io.Serializable;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
 
 /**
  * @ClassName RandomParameterElement
@@ -40,7 +39,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @Date 2022/8/06 15:43
  * @Version 1.0
  */
-public class RandomParameterElement extends ConfigTestElement implements Serializable , TestBean, LoopIterationListener, NoThreadClone, NoConfigMerge, ThreadListener {
+public class RandomParameterElement extends ConfigTestElement implements Serializable , TestBean, LoopIterationListener, NoThreadClone, NoConfigMerge, ThreadListener, TestStateListener {
 
     private static final long serialVersionUID = 240L;
 
@@ -48,13 +47,35 @@ public class RandomParameterElement extends ConfigTestElement implements Seriali
 
     public static final String VARIABLE_NAME="variableName";
     public static final String VARIABLE_FORMAT="outputFormat";
-
-    private transient ThreadLocal<Set<InnerStatClass>> threadLocal;
+    public static final String SAMPLING_STRATEGY="samplingStrategy";
+    public static final String RANDOM_ENGINE="randomEngine";
+    public static final String SEED="seed";
+    public static final String DISTRIBUTION_MODE="distributionMode";
+    public static final String GLOBAL_TOLERANCE="globalTolerance";
+    public static final String BUFFER_SIZE="bufferSize";
+    public static final String REFILL_WATERMARK="refillWatermark";
+    public static final String GENERATION_MODE="generationMode";
+    public static final String UNIQUE_MODE="uniqueMode";
+    public static final String ENGINE_INDEX="engineIndex";
+    public static final String ENGINE_COUNT="engineCount";
+    public static final String STATISTICS_INTERVAL="statisticsInterval";
+    public static final String HISTOGRAM_REPORT="histogramReport";
+    public static final String RATIO_SCHEDULE="ratioSchedule";
+    public static final String SCHEDULE_INTERPOLATION="scheduleInterpolation";
+    public static final String SEQUENCE_MODE="sequenceMode";
+    public static final String SEQUENCE_FILE="sequenceFile";
+
+    private transient RandomConfig config;
 
     static final String[] COLUMN_RESOURCE_NAMES = {
             "极小值",             // $NON-NLS-1$
             "极大值",             // $NON-NLS-1$
-            "占比"
+            "占比",               // $NON-NLS-1$
+            "变量（为空时使用上方名称）",  // $NON-NLS-1$
+            "格式（为空时使用上方格式）",  // $NON-NLS-1$
+            "类型",               // $NON-NLS-1$
+            "分布",               // $NON-NLS-1$
+            "分布参数（逗号分隔）"      // $NON-NLS-1$
     };
 
     public RandomParameterElement() {
@@ -134,97 +155,191 @@ public class RandomParameterElement extends ConfigTestElement implements Seriali
         this.setProperty(VARIABLE_FORMAT,outputFormat);
     }
 
-    @Override
-    public void iterationStart(LoopIterationEvent iterEvent) {
-        final long total = threadLocal.get().stream().mapToLong(t->t.getCount().get()).sum();
-        Optional<InnerStatClass> optional = threadLocal.get().stream().min(Comparator.comparingDouble(t->(t.getCount().get() * 1.0d)/(total * t.getRatio())));
-        if (optional.isPresent()){
-            InnerStatClass innerStatClass = optional.get();
-            double random = RandomUtils.nextDouble(innerStatClass.getMin(),innerStatClass.getMax());
-            innerStatClass.increase();
-            JMeterVariables variables = JMeterContextService.getContext().getVariables();
-            variables.put(getVariableName(), String.format(getOutputFormat(),random));
-        }
+    public String getSamplingStrategy() {
+        return getPropertyAsString(SAMPLING_STRATEGY);
     }
 
-    /**
-     * 每个线程开始时都需要执行该方法，故可以执行数据初始化方法
-     */
-    @Override
-    public void threadStarted() {
-        threadLocal=ThreadLocal.withInitial(()->{
-            Set<InnerStatClass> set=new HashSet<>();
-            int size = getHeaders().size();
-            for(int i=0;i<size;i++){
-                RandomParameter randomParameter = get(i);
-                set.add(new InnerStatClass(randomParameter.getHmin(),randomParameter.getHmax(),randomParameter.getHratio()));
-            }
-            return set;
-        });
+    public void setSamplingStrategy(String samplingStrategy) {
+        this.setProperty(SAMPLING_STRATEGY,samplingStrategy);
+    }
 
+    public String getRandomEngine() {
+        return getPropertyAsString(RANDOM_ENGINE);
     }
 
-    /**
-     * 每个线程结束时都会执行该方法，故可以执行数据清理方法
-     */
-    @Override
-    public void threadFinished() {
-        threadLocal.get().clear();
+    public void setRandomEngine(String randomEngine) {
+        this.setProperty(RANDOM_ENGINE,randomEngine);
     }
 
-    private class InnerStatClass{
-        private double min;
-        private double max;
-        private double ratio;
-        private AtomicLong count= new AtomicLong(1);
+    public String getSeed() {
+        return getPropertyAsString(SEED);
+    }
 
-        InnerStatClass(String min, String max, String ratio) {
-            super();
-            setMin(min);
-            setMax(max);
-            setRatio(ratio);
-        }
+    public void setSeed(String seed) {
+        this.setProperty(SEED,seed);
+    }
 
-        AtomicLong getCount() {
-            return count;
-        }
+    public String getDistributionMode() {
+        return getPropertyAsString(DISTRIBUTION_MODE);
+    }
 
-        void increase(){
-            count.addAndGet(1);
-        }
+    public void setDistributionMode(String distributionMode) {
+        this.setProperty(DISTRIBUTION_MODE,distributionMode);
+    }
 
-        double getMin() {
-            return min;
-        }
+    public String getGlobalTolerance() {
+        return getPropertyAsString(GLOBAL_TOLERANCE);
+    }
 
-        void setMin(String min) {
-            this.min = Double.parseDouble(min);
-        }
+    public void setGlobalTolerance(String globalTolerance) {
+        this.setProperty(GLOBAL_TOLERANCE,globalTolerance);
+    }
 
-        double getMax() {
-            return max;
-        }
+    public String getBufferSize() {
+        return getPropertyAsString(BUFFER_SIZE);
+    }
 
-        void setMax(String max) {
-            this.max = Double.parseDouble(max);
-        }
+    public void setBufferSize(String bufferSize) {
+        this.setProperty(BUFFER_SIZE,bufferSize);
+    }
 
-        double getRatio() {
-            return ratio;
-        }
+    public String getRefillWatermark() {
+        return getPropertyAsString(REFILL_WATERMARK);
+    }
 
-        void setRatio(String ratio) {
-            this.ratio = Double.parseDouble(ratio);
-        }
+    public void setRefillWatermark(String refillWatermark) {
+        this.setProperty(REFILL_WATERMARK,refillWatermark);
+    }
+
+    public String getGenerationMode() {
+        return getPropertyAsString(GENERATION_MODE);
+    }
+
+    public void setGenerationMode(String generationMode) {
+        this.setProperty(GENERATION_MODE,generationMode);
+    }
+
+    public String getUniqueMode() {
+        return getPropertyAsString(UNIQUE_MODE);
+    }
+
+    public void setUniqueMode(String uniqueMode) {
+        this.setProperty(UNIQUE_MODE,uniqueMode);
+    }
+
+    public String getEngineIndex() {
+        return getPropertyAsString(ENGINE_INDEX);
+    }
+
+    public void setEngineIndex(String engineIndex) {
+        this.setProperty(ENGINE_INDEX,engineIndex);
+    }
+
+    public String getEngineCount() {
+        return getPropertyAsString(ENGINE_COUNT);
+    }
+
+    public void setEngineCount(String engineCount) {
+        this.setProperty(ENGINE_COUNT,engineCount);
+    }
+
+    public String getStatisticsInterval() {
+        return getPropertyAsString(STATISTICS_INTERVAL);
+    }
 
-        @Override
-        public boolean equals(Object o){
-            return super.equals(o);
+    public void setStatisticsInterval(String statisticsInterval) {
+        this.setProperty(STATISTICS_INTERVAL,statisticsInterval);
+    }
+
+    public String getHistogramReport() {
+        return getPropertyAsString(HISTOGRAM_REPORT);
+    }
+
+    public void setHistogramReport(String histogramReport) {
+        this.setProperty(HISTOGRAM_REPORT,histogramReport);
+    }
+
+    public String getSequenceMode() {
+        return getPropertyAsString(SEQUENCE_MODE);
+    }
+
+    public void setSequenceMode(String sequenceMode) {
+        this.setProperty(SEQUENCE_MODE,sequenceMode);
+    }
+
+    public String getSequenceFile() {
+        return getPropertyAsString(SEQUENCE_FILE);
+    }
+
+    public void setSequenceFile(String sequenceFile) {
+        this.setProperty(SEQUENCE_FILE,sequenceFile);
+    }
+
+    public String getRatioSchedule() {
+        return getPropertyAsString(RATIO_SCHEDULE);
+    }
+
+    public void setRatioSchedule(String ratioSchedule) {
+        this.setProperty(RATIO_SCHEDULE,ratioSchedule);
+    }
+
+    public String getScheduleInterpolation() {
+        return getPropertyAsString(SCHEDULE_INTERPOLATION);
+    }
+
+    public void setScheduleInterpolation(String scheduleInterpolation) {
+        this.setProperty(SCHEDULE_INTERPOLATION,scheduleInterpolation);
+    }
+
+    @Override
+    public void iterationStart(LoopIterationEvent iterEvent) {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        config.state(variables).apply(variables);
+    }
+
+    /**
+     * 测试开始时执行一次：解析全部配置行和变量设置，线程启动时只需创建自己的计数状态
+     */
+    @Override
+    public void testStarted() {
+        config = RandomConfig.compile(this);
+        config.start();
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        if (config != null) {
+            config.stop();
         }
+        config = null;
+    }
 
-        @Override
-        public int hashCode(){
-            return super.hashCode();
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    /**
+     * 每个线程开始时都需要执行该方法，故可以执行数据初始化方法。状态保存在用户变量中，不使用 ThreadLocal
+     */
+    @Override
+    public void threadStarted() {
+        config.state(JMeterContextService.getContext().getVariables());
+    }
+
+    /**
+     * 每个线程结束时都会执行该方法，故可以执行数据清理方法
+     */
+    @Override
+    public void threadFinished() {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (config != null && variables != null) {
+            config.release(variables);
         }
     }
 }
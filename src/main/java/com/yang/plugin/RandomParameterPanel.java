@@ -29,10 +29,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.border.Border;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * @ClassName RandomParameterPanel
@@ -49,16 +53,58 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
 
     private static final String ADD_COMMAND = "Add"; // $NON-NLS-1$
     private static final String DELETE_COMMAND = "Delete"; // $NON-NLS-1$
+    private static final String VALIDATE_COMMAND = "Validate"; // $NON-NLS-1$
 
     private InnerTableModel tableModel;
     private RandomParameterElement headerManager;
     private JTable headerTable;
     private JButton deleteButton;
 
+    private JButton validateButton;
+
     private JLabel variableLabel ;
     private JTextField variableText;
     private JLabel outputLabel;
     private JTextField outputText;
+    private JLabel strategyLabel;
+    private JComboBox<SamplingStrategy> strategyBox;
+    private JLabel engineLabel;
+    private JComboBox<RandomEngineType> engineBox;
+    private JLabel seedLabel;
+    private JTextField seedText;
+
+    private JLabel engineIndexLabel;
+
+    private JTextField engineIndexText;
+
+    private JLabel engineCountLabel;
+
+    private JTextField engineCountText;
+    private JLabel modeLabel;
+    private JComboBox<DistributionMode> modeBox;
+    private JLabel toleranceLabel;
+    private JTextField toleranceText;
+    private JLabel bufferLabel;
+    private JTextField bufferText;
+    private JLabel watermarkLabel;
+    private JTextField watermarkText;
+    private JLabel generationLabel;
+    private JComboBox<GenerationMode> generationBox;
+
+    private JLabel uniqueLabel;
+
+    private JComboBox<UniqueMode> uniqueBox;
+    private JLabel statisticsLabel;
+    private JTextField statisticsText;
+    private JLabel reportLabel;
+    private JTextField reportText;
+    private JLabel sequenceLabel;
+    private JComboBox<SequenceMode> sequenceBox;
+    private JLabel sequenceFileLabel;
+    private JTextField sequenceFileText;
+    private JLabel interpolationLabel;
+    private JComboBox<ScheduleInterpolation> interpolationBox;
+    private JTextArea scheduleText;
 
     public RandomParameterPanel() {
         headerManager = new RandomParameterElement();
@@ -85,6 +131,23 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         configureTestElement(el);
         el.setProperty(new StringProperty(RandomParameterElement.VARIABLE_NAME, variableText.getText()));
         el.setProperty(new StringProperty(RandomParameterElement.VARIABLE_FORMAT, outputText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.SAMPLING_STRATEGY, ((SamplingStrategy) strategyBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.RANDOM_ENGINE, ((RandomEngineType) engineBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.SEED, seedText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.ENGINE_INDEX, engineIndexText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.ENGINE_COUNT, engineCountText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.DISTRIBUTION_MODE, ((DistributionMode) modeBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.GLOBAL_TOLERANCE, toleranceText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.BUFFER_SIZE, bufferText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.REFILL_WATERMARK, watermarkText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.GENERATION_MODE, ((GenerationMode) generationBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.UNIQUE_MODE, ((UniqueMode) uniqueBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.STATISTICS_INTERVAL, statisticsText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.HISTOGRAM_REPORT, reportText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.SEQUENCE_MODE, ((SequenceMode) sequenceBox.getSelectedItem()).name()));
+        el.setProperty(new StringProperty(RandomParameterElement.SEQUENCE_FILE, sequenceFileText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.RATIO_SCHEDULE, scheduleText.getText()));
+        el.setProperty(new StringProperty(RandomParameterElement.SCHEDULE_INTERPOLATION, ((ScheduleInterpolation) interpolationBox.getSelectedItem()).name()));
     }
 
     @Override
@@ -94,6 +157,23 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         deleteButton.setEnabled(false);
         outputText.setText("%.2f");
         variableText.setText("");
+        strategyBox.setSelectedItem(SamplingStrategy.DEFICIT);
+        engineBox.setSelectedItem(RandomEngineType.THREAD_LOCAL_RANDOM);
+        seedText.setText("");
+        engineIndexText.setText("");
+        engineCountText.setText("");
+        modeBox.setSelectedItem(DistributionMode.THREAD);
+        toleranceText.setText(String.valueOf(RandomConfig.DEFAULT_TOLERANCE));
+        bufferText.setText("0");
+        watermarkText.setText("");
+        generationBox.setSelectedItem(GenerationMode.EAGER);
+        uniqueBox.setSelectedItem(UniqueMode.NONE);
+        statisticsText.setText("");
+        reportText.setText("");
+        sequenceBox.setSelectedItem(SequenceMode.OFF);
+        sequenceFileText.setText("");
+        scheduleText.setText("");
+        interpolationBox.setSelectedItem(ScheduleInterpolation.STEP);
     }
 
     @Override
@@ -103,6 +183,23 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         headerManager.addTestElement(el);
         variableText.setText(el.getPropertyAsString(RandomParameterElement.VARIABLE_NAME));
         outputText.setText(el.getPropertyAsString(RandomParameterElement.VARIABLE_FORMAT));
+        strategyBox.setSelectedItem(SamplingStrategy.of(el.getPropertyAsString(RandomParameterElement.SAMPLING_STRATEGY)));
+        engineBox.setSelectedItem(RandomEngineType.of(el.getPropertyAsString(RandomParameterElement.RANDOM_ENGINE)));
+        seedText.setText(el.getPropertyAsString(RandomParameterElement.SEED));
+        engineIndexText.setText(el.getPropertyAsString(RandomParameterElement.ENGINE_INDEX));
+        engineCountText.setText(el.getPropertyAsString(RandomParameterElement.ENGINE_COUNT));
+        modeBox.setSelectedItem(DistributionMode.of(el.getPropertyAsString(RandomParameterElement.DISTRIBUTION_MODE)));
+        toleranceText.setText(el.getPropertyAsString(RandomParameterElement.GLOBAL_TOLERANCE, String.valueOf(RandomConfig.DEFAULT_TOLERANCE)));
+        bufferText.setText(el.getPropertyAsString(RandomParameterElement.BUFFER_SIZE, "0"));
+        watermarkText.setText(el.getPropertyAsString(RandomParameterElement.REFILL_WATERMARK));
+        generationBox.setSelectedItem(GenerationMode.of(el.getPropertyAsString(RandomParameterElement.GENERATION_MODE)));
+        uniqueBox.setSelectedItem(UniqueMode.of(el.getPropertyAsString(RandomParameterElement.UNIQUE_MODE)));
+        statisticsText.setText(el.getPropertyAsString(RandomParameterElement.STATISTICS_INTERVAL));
+        reportText.setText(el.getPropertyAsString(RandomParameterElement.HISTOGRAM_REPORT));
+        sequenceBox.setSelectedItem(SequenceMode.of(el.getPropertyAsString(RandomParameterElement.SEQUENCE_MODE)));
+        sequenceFileText.setText(el.getPropertyAsString(RandomParameterElement.SEQUENCE_FILE));
+        scheduleText.setText(el.getPropertyAsString(RandomParameterElement.RATIO_SCHEDULE));
+        interpolationBox.setSelectedItem(ScheduleInterpolation.of(el.getPropertyAsString(RandomParameterElement.SCHEDULE_INTERPOLATION)));
         checkButtonsStatus();
     }
 
@@ -118,8 +215,13 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         JPanel vertPanel = new VerticalPanel();
         vertPanel.add(makeTitlePanel());
         vertPanel.add(createVariablePanel());
+        vertPanel.add(createGeneratorPanel());
+        vertPanel.add(createStatisticsPanel());
         add(vertPanel,BorderLayout.NORTH);
-        add(createHeaderTablePanel(),BorderLayout.CENTER);
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("配置", createHeaderTablePanel());
+        tabbedPane.addTab("占比计划", createSchedulePanel());
+        add(tabbedPane,BorderLayout.CENTER);
     }
 
     private void checkButtonsStatus() {
@@ -172,6 +274,8 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
 
         if (action.equals(DELETE_COMMAND)) {
             deleteRows();
+        } else if (action.equals(VALIDATE_COMMAND)) {
+            validateElement();
         } else {
             // If a table cell is being edited, we should accept the current
             // value and stop the editing before adding a new row.
@@ -189,6 +293,53 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         }
     }
 
+    /**
+     * 按当前界面上的配置编译一次元件，不启动测试，列出全部无法解析的行和无效的设置。
+     * 区间文件可能很大，编译在后台线程中执行，期间校验按钮不可用；后台线程只读取元件的快照，不与界面共享属性
+     */
+    private void validateElement() {
+        GuiUtils.stopTableEditing(headerTable);
+        RandomParameterElement edited = new RandomParameterElement();
+        modifyTestElement(edited);
+        RandomParameterElement element = (RandomParameterElement) edited.clone();
+        validateButton.setEnabled(false);
+        new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() {
+                return RandomConfig.validate(element);
+            }
+
+            @Override
+            protected void done() {
+                validateButton.setEnabled(true);
+                List<String> problems;
+                try {
+                    problems = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    log.error("Failed to validate {}", element.getName(), e.getCause());
+                    problems = Collections.singletonList(e.getCause().toString());
+                }
+                showProblems(problems);
+            }
+        }.execute();
+    }
+
+    private void showProblems(List<String> problems) {
+        if (problems.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "没有发现问题", "校验", JOptionPane.INFORMATION_MESSAGE); // $NON-NLS-1$
+            return;
+        }
+        JTextArea text = new JTextArea(String.join("\n", problems));
+        text.setEditable(false);
+        text.setRows(Math.min(problems.size(), 15));
+        text.setColumns(80);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text), "校验：发现 " + problems.size() + " 个问题", // $NON-NLS-1$
+                JOptionPane.WARNING_MESSAGE);
+    }
+
     public JPanel createHeaderTablePanel() {
         // create the JTable that holds header per row
         headerTable = new JTable(tableModel);
@@ -196,6 +347,8 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         headerTable.getTableHeader().setDefaultRenderer(new HeaderAsPropertyRenderer());
         headerTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         headerTable.setPreferredScrollableViewportSize(new Dimension(100, 70));
+        headerTable.setDefaultEditor(BucketKind.class, new EnumCellEditor<>(BucketKind.values()));
+        headerTable.setDefaultEditor(DistributionType.class, new EnumCellEditor<>(DistributionType.values()));
 
         JPanel panel = new JPanel(new BorderLayout(0, 5));
         panel.setBorder(BorderFactory.createTitledBorder("配置")); // $NON-NLS-1$
@@ -204,6 +357,67 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         return panel;
     }
 
+    /**
+     * 类型和分布列的下拉框可以直接输入，联合行用 ; 分隔各变量的类型或分布
+     */
+    private static <E extends Enum<E>> JComboBox<E> editableBox(E[] constants) {
+        JComboBox<E> box = new JComboBox<>(constants);
+        box.setEditable(true);
+        return box;
+    }
+
+    /**
+     * 直接输入的文本中有无法识别的类型或分布时不结束编辑并以红框标出，与 JTable 默认编辑器拒绝非法数字的方式一致
+     */
+    private static final class EnumCellEditor<E extends Enum<E>> extends DefaultCellEditor {
+        private static final long serialVersionUID = 240L;
+
+        private final E[] constants;
+        private final JComponent field;
+        private final transient Border border;
+
+        EnumCellEditor(E[] constants) {
+            super(editableBox(constants));
+            this.constants = constants;
+            this.field = (JComponent) ((JComboBox<?>) getComponent()).getEditor().getEditorComponent();
+            this.border = field.getBorder();
+        }
+
+        @Override
+        public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected,
+                                                     int row, int column) {
+            field.setBorder(border);
+            return super.getTableCellEditorComponent(table, value, isSelected, row, column);
+        }
+
+        @Override
+        public boolean stopCellEditing() {
+            Object text = ((JComboBox<?>) getComponent()).getEditor().getItem();
+            if (InnerTableModel.names(text, constants) == null) {
+                field.setBorder(BorderFactory.createLineBorder(Color.RED));
+                return false;
+            }
+            return super.stopCellEditing();
+        }
+    }
+
+    private JPanel createSchedulePanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.setBorder(BorderFactory.createTitledBorder("占比计划（每行一个时间点：秒数=各配置行占比，逗号分隔，留空的行使用配置中的占比）")); // $NON-NLS-1$
+
+        JPanel interpolationPanel = new HorizontalPanel();
+        interpolationLabel=new JLabel("变化方式");
+        interpolationBox=new JComboBox<>(ScheduleInterpolation.values());
+        interpolationLabel.setLabelFor(interpolationBox);
+        interpolationPanel.add(interpolationLabel);
+        interpolationPanel.add(interpolationBox);
+
+        scheduleText=new JTextArea(6, 40);
+        panel.add(interpolationPanel, BorderLayout.NORTH);
+        panel.add(GuiUtils.emptyBorder(new JScrollPane(scheduleText)), BorderLayout.CENTER);
+        return panel;
+    }
+
     private JPanel createVariablePanel() {
         JPanel panel = new VerticalPanel();
         panel.setBorder(BorderFactory.createTitledBorder("变量"));
@@ -227,6 +441,122 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
         return panel;
     }
 
+    private JPanel createGeneratorPanel() {
+        JPanel panel = new VerticalPanel();
+        panel.setBorder(BorderFactory.createTitledBorder("生成方式"));
+
+        JPanel strategyPanel = new HorizontalPanel();
+        strategyLabel=new JLabel("策略");
+        strategyBox=new JComboBox<>(SamplingStrategy.values());
+        strategyLabel.setLabelFor(strategyBox);
+        strategyPanel.add(strategyLabel);
+        strategyPanel.add(strategyBox);
+
+        JPanel enginePanel = new HorizontalPanel();
+        engineLabel=new JLabel("随机数引擎");
+        engineBox=new JComboBox<>(RandomEngineType.values());
+        engineLabel.setLabelFor(engineBox);
+        enginePanel.add(engineLabel);
+        enginePanel.add(engineBox);
+        seedLabel=new JLabel("种子（为空时每次执行随机）");
+        seedText=new JTextField(10);
+        seedLabel.setLabelFor(seedText);
+        enginePanel.add(seedLabel);
+        enginePanel.add(seedText);
+
+        JPanel partitionPanel = new HorizontalPanel();
+        engineIndexLabel=new JLabel("引擎序号（从 0 开始，为空时读取属性 random.engine.index）");
+        engineIndexText=new JTextField(5);
+        engineIndexLabel.setLabelFor(engineIndexText);
+        partitionPanel.add(engineIndexLabel);
+        partitionPanel.add(engineIndexText);
+        engineCountLabel=new JLabel("引擎总数（为空时读取属性 random.engine.count）");
+        engineCountText=new JTextField(5);
+        engineCountLabel.setLabelFor(engineCountText);
+        partitionPanel.add(engineCountLabel);
+        partitionPanel.add(engineCountText);
+
+        JPanel modePanel = new HorizontalPanel();
+        modeLabel=new JLabel("占比范围");
+        modeBox=new JComboBox<>(DistributionMode.values());
+        modeLabel.setLabelFor(modeBox);
+        modePanel.add(modeLabel);
+        modePanel.add(modeBox);
+        toleranceLabel=new JLabel("全局占比容差");
+        toleranceText=new JTextField(String.valueOf(RandomConfig.DEFAULT_TOLERANCE), 10);
+        toleranceLabel.setLabelFor(toleranceText);
+        modePanel.add(toleranceLabel);
+        modePanel.add(toleranceText);
+
+        JPanel bufferPanel = new HorizontalPanel();
+        bufferLabel=new JLabel("预生成缓冲大小（0 为不预生成）");
+        bufferText=new JTextField("0", 10);
+        bufferLabel.setLabelFor(bufferText);
+        bufferPanel.add(bufferLabel);
+        bufferPanel.add(bufferText);
+        watermarkLabel=new JLabel("补充水位（为空时取缓冲的 1/4）");
+        watermarkText=new JTextField(10);
+        watermarkLabel.setLabelFor(watermarkText);
+        bufferPanel.add(watermarkLabel);
+        bufferPanel.add(watermarkText);
+
+        JPanel generationPanel = new HorizontalPanel();
+        generationLabel=new JLabel("生成时机");
+        generationBox=new JComboBox<>(GenerationMode.values());
+        generationLabel.setLabelFor(generationBox);
+        generationPanel.add(generationLabel);
+        generationPanel.add(generationBox);
+        uniqueLabel=new JLabel("整数取值去重");
+        uniqueBox=new JComboBox<>(UniqueMode.values());
+        uniqueLabel.setLabelFor(uniqueBox);
+        generationPanel.add(uniqueLabel);
+        generationPanel.add(uniqueBox);
+
+        panel.add(strategyPanel);
+        panel.add(generationPanel);
+        panel.add(enginePanel);
+        panel.add(partitionPanel);
+        panel.add(modePanel);
+        panel.add(bufferPanel);
+        return panel;
+    }
+
+    private JPanel createStatisticsPanel() {
+        JPanel panel = new VerticalPanel();
+        panel.setBorder(BorderFactory.createTitledBorder("统计"));
+
+        JPanel intervalPanel = new HorizontalPanel();
+        statisticsLabel=new JLabel("占比统计写入间隔（秒，为空时不统计）");
+        statisticsText=new JTextField(10);
+        statisticsLabel.setLabelFor(statisticsText);
+        intervalPanel.add(statisticsLabel);
+        intervalPanel.add(statisticsText);
+
+        JPanel reportPanel = new HorizontalPanel();
+        reportLabel=new JLabel("取值分布报告文件（.json 或 .csv，为空时不记录）");
+        reportText=new JTextField();
+        reportLabel.setLabelFor(reportText);
+        reportPanel.add(reportLabel);
+        reportPanel.add(reportText);
+
+        JPanel sequencePanel = new HorizontalPanel();
+        sequenceLabel=new JLabel("取值序列");
+        sequenceBox=new JComboBox<>(SequenceMode.values());
+        sequenceLabel.setLabelFor(sequenceBox);
+        sequencePanel.add(sequenceLabel);
+        sequencePanel.add(sequenceBox);
+        sequenceFileLabel=new JLabel("序列文件");
+        sequenceFileText=new JTextField();
+        sequenceFileLabel.setLabelFor(sequenceFileText);
+        sequencePanel.add(sequenceFileLabel);
+        sequencePanel.add(sequenceFileText);
+
+        panel.add(intervalPanel);
+        panel.add(reportPanel);
+        panel.add(sequencePanel);
+        return panel;
+    }
+
     private JButton createButton(String resName, char mnemonic, String command, boolean enabled) {
         JButton button = new JButton(resName);
         button.setMnemonic(mnemonic);
@@ -241,16 +571,22 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
 
         JButton addButton = createButton("新增", 'A', ADD_COMMAND, true); // $NON-NLS-1$
         deleteButton = createButton("删除", 'D', DELETE_COMMAND, !tableEmpty); // $NON-NLS-1$
+        validateButton = createButton("校验", 'V', VALIDATE_COMMAND, true); // $NON-NLS-1$
 
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(addButton);
         buttonPanel.add(deleteButton);
+        buttonPanel.add(validateButton);
         return buttonPanel;
     }
 
     private static class InnerTableModel extends AbstractTableModel {
         private static final long serialVersionUID = 240L;
 
+        private static final int TYPE_COLUMN = 5;
+
+        private static final int DISTRIBUTION_COLUMN = 6;
+
         private RandomParameterElement manager;
 
         public InnerTableModel(RandomParameterElement man) {
@@ -278,7 +614,12 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
 
         @Override
         public Class<?> getColumnClass(int column) {
-            return getValueAt(0, column).getClass();
+            if (column == TYPE_COLUMN) {
+                return BucketKind.class;
+            } else if (column == DISTRIBUTION_COLUMN) {
+                return DistributionType.class;
+            }
+            return String.class;
         }
 
         @Override
@@ -288,7 +629,7 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
 
         @Override
         public int getColumnCount() {
-            return 3;
+            return RandomParameterElement.COLUMN_RESOURCE_NAMES.length;
         }
 
         @Override
@@ -303,8 +644,20 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
                 return head.getHmin();
             } else if (column == 1) {
                 return head.getHmax();
-            } else {
+            } else if (column == 2) {
                 return head.getHratio();
+            } else if (column == 3) {
+                return head.getHvariable();
+            } else if (column == 4) {
+                return head.getHformat();
+            } else if (column == TYPE_COLUMN) {
+                String type = head.getHtype();
+                return type.indexOf(';') >= 0 ? type : BucketKind.of(type);
+            } else if (column == DISTRIBUTION_COLUMN) {
+                String distribution = head.getHdistribution();
+                return distribution.indexOf(';') >= 0 ? distribution : DistributionType.of(distribution);
+            } else {
+                return head.getHparameters();
             }
         }
 
@@ -315,9 +668,55 @@ public class RandomParameterPanel extends AbstractConfigGui implements ActionLis
                 header.setHmin((String) value);
             } else if (column == 1) {
                 header.setHmax((String) value);
-            } else {
+            } else if (column == 2) {
                 header.setHratio((String) value);
+            } else if (column == 3) {
+                header.setHvariable((String) value);
+            } else if (column == 4) {
+                header.setHformat((String) value);
+            } else if (column == TYPE_COLUMN) {
+                String names = names(value, BucketKind.values());
+                if (names != null) {
+                    header.setHtype(names);
+                }
+            } else if (column == DISTRIBUTION_COLUMN) {
+                String names = names(value, DistributionType.values());
+                if (names != null) {
+                    header.setHdistribution(names);
+                }
+            } else {
+                header.setHparameters((String) value);
+            }
+        }
+
+        /**
+         * 下拉选择时为枚举值，直接输入时为文本；文本中 ; 分隔的各项按名称或显示名转换为名称，空项保留为默认值
+         *
+         * @return 转换后的名称，有无法识别的项时为 null，不写入属性
+         */
+        private static <E extends Enum<E>> String names(Object value, E[] constants) {
+            if (value instanceof Enum) {
+                return ((Enum<?>) value).name();
+            }
+            String[] parts = String.valueOf(value).split(";", -1);
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i].trim();
+                if (!part.isEmpty()) {
+                    String name = null;
+                    for (E constant : constants) {
+                        if (constant.name().equalsIgnoreCase(part) || constant.toString().equals(part)) {
+                            name = constant.name();
+                            break;
+                        }
+                    }
+                    if (name == null) {
+                        return null;
+                    }
+                    part = name;
+                }
+                parts[i] = part;
             }
+            return String.join(";", parts);
         }
 
     }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+
+/**
+ * @ClassName RandomState
+ * @Description 每个线程的随机数状态，包含元件定义的全部变量，一次迭代中一起生成并写入；
+ * 延迟生成时只写入各变量的占位对象；录制时同时追加到序列文件，回放时直接写入录制的取值
+ * @Version 1.0
+ */
+final class RandomState {
+
+    /**
+     * 创建该状态的配置
+     */
+    final RandomConfig owner;
+    /**
+     * 全部变量名，按生成组依次排列
+     */
+    private final String[] names;
+    private final ValueGenerator[] generators;
+    /**
+     * 各变量的占位对象，立即生成时为 null
+     */
+    private final LazyValue[] lazyValues;
+    /**
+     * 录制取值序列时的录制器，否则为 null
+     */
+    private final SequenceWriter.Recorder recorder;
+    /**
+     * 回放取值序列时的游标，否则为 null
+     */
+    private final SequenceReader.Cursor replay;
+
+    /**
+     * @param owner      创建该状态的配置
+     * @param names      全部变量名，按生成组依次排列
+     * @param generators 各组变量的生成状态
+     * @param lazy       是否延迟到第一次读取时生成
+     * @param recorder   录制器，不录制时为 null
+     * @param replay     回放游标，不回放时为 null
+     */
+    RandomState(RandomConfig owner, String[] names, ValueGenerator[] generators, boolean lazy,
+                SequenceWriter.Recorder recorder, SequenceReader.Cursor replay) {
+        this.owner = owner;
+        this.names = names;
+        this.generators = generators;
+        this.recorder = recorder;
+        this.replay = replay;
+        if (lazy) {
+            lazyValues = new LazyValue[names.length];
+            int variable = 0;
+            for (ValueGenerator generator : generators) {
+                for (int member = 0; member < generator.size(); member++) {
+                    lazyValues[variable++] = new LazyValue(generator, member);
+                }
+            }
+        } else {
+            lazyValues = null;
+        }
+    }
+
+    /**
+     * 生成全部变量的值并一次写入，延迟生成时写入占位对象。
+     * 每次迭代都重新写入占位对象，脚本在上次迭代中覆盖了变量也不影响
+     *
+     * @param variables 当前线程的变量
+     */
+    void apply(JMeterVariables variables) {
+        if (replay != null) {
+            replay.apply(variables, names);
+            return;
+        }
+        if (lazyValues != null) {
+            for (ValueGenerator generator : generators) {
+                generator.invalidate();
+            }
+            for (int i = 0; i < lazyValues.length; i++) {
+                variables.putObject(names[i], lazyValues[i]);
+            }
+            return;
+        }
+        int variable = 0;
+        for (ValueGenerator generator : generators) {
+            String[] values = generator.next();
+            if (values != null) {
+                for (int member = 0; member < values.length; member++) {
+                    variables.put(names[variable + member], values[member]);
+                }
+            }
+            if (recorder != null) {
+                for (int member = 0; member < generator.size(); member++) {
+                    recorder.record(values == null ? null : values[member]);
+                }
+            }
+            variable += generator.size();
+        }
+        if (recorder != null) {
+            recorder.endIteration();
+        }
+    }
+
+    /**
+     * 只生成一个变量的值，不写入变量；该变量属于联合行时整组生成
+     *
+     * @param variable 变量下标
+     * @return 随机数，没有配置行时返回 null
+     */
+    String nextValue(int variable) {
+        for (ValueGenerator generator : generators) {
+            if (variable < generator.size()) {
+                String[] values = generator.next();
+                return values == null ? null : values[variable];
+            }
+            variable -= generator.size();
+        }
+        return null;
+    }
+
+    /**
+     * 线程结束时调用
+     */
+    void release() {
+        for (ValueGenerator generator : generators) {
+            generator.release();
+        }
+        if (recorder != null) {
+            recorder.flush();
+        }
+    }
+}
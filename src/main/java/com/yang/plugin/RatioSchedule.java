@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @ClassName RatioSchedule
+ * @Description 随测试运行时间变化的占比计划。每行一个时间点：秒数=各配置行的占比（逗号分隔，按配置表的行顺序，
+ * 留空或省略的行使用配置表中的占比）。没有 0 秒的时间点时以配置表的占比作为起点，最后一个时间点之后保持不变。
+ * 后台线程每 {@link #TICK_MILLIS} 毫秒计算一次当前占比，变化时更新各变量的 {@link BucketWeights}
+ * @Version 1.0
+ */
+final class RatioSchedule {
+
+    private static final Logger log = LoggerFactory.getLogger(RatioSchedule.class);
+
+    static final long TICK_MILLIS = 100L;
+
+    private final String element;
+    private final ScheduleInterpolation interpolation;
+    /**
+     * 各时间点（毫秒），升序，第一个为 0
+     */
+    private final long[] times;
+    /**
+     * 各时间点按配置行下标排列的占比
+     */
+    private final double[][] ratios;
+    private ScheduledExecutorService scheduler;
+    private double[] published;
+
+    private RatioSchedule(String element, ScheduleInterpolation interpolation, long[] times, double[][] ratios) {
+        this.element = element;
+        this.interpolation = interpolation;
+        this.times = times;
+        this.ratios = ratios;
+    }
+
+    /**
+     * @param element  随机数元件
+     * @param problems 收集无法解析的时间点
+     * @return 占比计划，未配置或没有有效的时间点时返回 null
+     */
+    static RatioSchedule compile(RandomParameterElement element, CompileProblems problems) {
+        String text = element.getRatioSchedule();
+        if (text.trim().isEmpty()) {
+            return null;
+        }
+        int rows = element.size();
+        double[] configured = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            try {
+                configured[i] = Double.parseDouble(element.get(i).getHratio());
+            } catch (NumberFormatException e) {
+                // 无法解析的行在编译区间表时已被跳过
+                configured[i] = 0;
+            }
+        }
+        List<long[]> keyTimes = new ArrayList<>();
+        List<double[]> keyRatios = new ArrayList<>();
+        String[] lines = text.split("\\r?\\n");
+        for (int line = 0; line < lines.length; line++) {
+            String entry = lines[line].trim();
+            if (entry.isEmpty() || entry.startsWith("#")) {
+                continue;
+            }
+            try {
+                int separator = entry.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("expected seconds=ratio,ratio,...");
+                }
+                double seconds = Double.parseDouble(entry.substring(0, separator).trim());
+                if (!(seconds >= 0) || Double.isInfinite(seconds)) {
+                    throw new IllegalArgumentException("invalid time " + seconds);
+                }
+                String[] parts = entry.substring(separator + 1).split(",", -1);
+                if (parts.length > rows) {
+                    throw new IllegalArgumentException(parts.length + " ratios for " + rows + " rows");
+                }
+                double[] vector = configured.clone();
+                for (int i = 0; i < parts.length; i++) {
+                    String part = parts[i].trim();
+                    if (!part.isEmpty()) {
+                        vector[i] = BucketTable.parseRatio(part);
+                    }
+                }
+                keyTimes.add(new long[]{Math.round(seconds * 1000), keyTimes.size()});
+                keyRatios.add(vector);
+            } catch (IllegalArgumentException e) {
+                problems.error(log, "Skipping line {} of the ratio schedule of {}: '{}': {}", line + 1,
+                        element.getName(), entry, e.getMessage());
+            }
+        }
+        if (keyTimes.isEmpty()) {
+            return null;
+        }
+        // 按时间稳定排序，时间相同的后写者生效
+        keyTimes.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        boolean startsAtZero = keyTimes.get(0)[0] == 0;
+        int size = keyTimes.size() + (startsAtZero ? 0 : 1);
+        long[] times = new long[size];
+        double[][] ratios = new double[size][];
+        int index = 0;
+        if (!startsAtZero) {
+            times[0] = 0;
+            ratios[0] = configured;
+            index = 1;
+        }
+        for (long[] key : keyTimes) {
+            times[index] = key[0];
+            ratios[index] = keyRatios.get((int) key[1]);
+            index++;
+        }
+        return new RatioSchedule(element.getName(), ScheduleInterpolation.of(element.getScheduleInterpolation()),
+                times, ratios);
+    }
+
+    /**
+     * @param elapsed 测试开始后的毫秒数
+     * @return 按配置行下标排列的占比
+     */
+    double[] ratiosAt(long elapsed) {
+        int next = 0;
+        while (next < times.length && times[next] <= elapsed) {
+            next++;
+        }
+        if (next == 0) {
+            return ratios[0];
+        }
+        if (next == times.length || interpolation == ScheduleInterpolation.STEP) {
+            return ratios[next - 1];
+        }
+        double[] from = ratios[next - 1];
+        double[] to = ratios[next];
+        double t = (double) (elapsed - times[next - 1]) / (times[next] - times[next - 1]);
+        double[] current = new double[from.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = from[i] + (to[i] - from[i]) * t;
+        }
+        return current;
+    }
+
+    /**
+     * 以当前时刻为起点，立即应用 0 秒的占比并开始定时更新
+     *
+     * @param specs 各变量的编译结果
+     */
+    void start(VariableSpec[] specs) {
+        long start = System.nanoTime();
+        apply(specs, 0);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RandomParameter-schedule-" + element);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> apply(specs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)),
+                TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void apply(VariableSpec[] specs, long elapsed) {
+        double[] current = ratiosAt(elapsed);
+        if (Arrays.equals(current, published)) {
+            return;
+        }
+        published = current;
+        for (VariableSpec spec : specs) {
+            BucketTable table = spec.table;
+            double[] bucketRatios = new double[table.size()];
+            for (int bucket = 0; bucket < bucketRatios.length; bucket++) {
+                bucketRatios[bucket] = current[table.row(bucket)];
+            }
+            if (!Arrays.equals(bucketRatios, spec.weights.snapshot().ratios)) {
+                spec.weights.update(bucketRatios);
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName RatioStatistics
+ * @Description 各区间实际产生数量的统计。计数使用分段的 {@link LongAdder}，每次选出区间只做一次无竞争的自增；
+ * 按间隔把实际占比与配置占比写入 JMeter 属性，同时注册为 MBean。配置了占比计划时，配置占比为当前生效的占比
+ * @Version 1.0
+ */
+final class RatioStatistics implements RatioStatisticsMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RatioStatistics.class);
+
+    /**
+     * JMeter 属性名前缀，完整的属性名为 random.元件名.变量名.配置行号.count|target|actual|deviation
+     */
+    static final String PROPERTY_PREFIX = "random.";
+
+    private final String element;
+    private final String[] variables;
+    private final BucketTable[] tables;
+    private final BucketWeights[] weights;
+    /**
+     * 按变量取各区间的计数器；联合行的各变量共用第一个变量的计数器，每次选出区间只计数一次，
+     * 写入时各变量按同一组计数输出
+     */
+    private final LongAdder[][] counters;
+    private ScheduledExecutorService scheduler;
+    private ObjectName objectName;
+
+    RatioStatistics(String element, VariableSpec[] specs) {
+        this.element = element;
+        this.variables = new String[specs.length];
+        this.tables = new BucketTable[specs.length];
+        this.weights = new BucketWeights[specs.length];
+        this.counters = new LongAdder[specs.length][];
+        for (int i = 0; i < specs.length; i++) {
+            BucketTable table = specs[i].table;
+            variables[i] = specs[i].name;
+            tables[i] = table;
+            weights[i] = specs[i].weights;
+            if (specs[i].members == 0) {
+                // 联合行中第一个之外的变量与前一个变量同属一组，区间下标一一对应
+                counters[i] = counters[i - 1];
+                continue;
+            }
+            counters[i] = new LongAdder[table.size()];
+            for (int bucket = 0; bucket < table.size(); bucket++) {
+                counters[i][bucket] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * @param variable 变量下标
+     * @return 该变量各区间当前的配置占比（百分比）
+     */
+    private double[] targets(int variable) {
+        weights[variable].epoch();
+        double[] normalized = weights[variable].snapshot().normalized;
+        double[] targets = new double[normalized.length];
+        for (int bucket = 0; bucket < targets.length; bucket++) {
+            targets[bucket] = normalized[bucket] * 100;
+        }
+        return targets;
+    }
+
+    /**
+     * @param variable 变量下标
+     * @return 该变量各区间的计数器，联合行的各变量返回同一组
+     */
+    LongAdder[] counters(int variable) {
+        return counters[variable];
+    }
+
+    /**
+     * 注册 MBean 并开始按间隔写入 JMeter 属性
+     *
+     * @param intervalSeconds 写入间隔（秒）
+     */
+    void start(int intervalSeconds) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.yang.plugin:type=RandomParameter,name=" + ObjectName.quote(element));
+            if (server.isRegistered(name)) {
+                log.warn("MBean {} is already registered, statistics of {} are only published as properties", name,
+                        element);
+            } else {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            log.warn("Failed to register statistics MBean of {}", element, e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RandomParameter-statistics-" + element);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::publish, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止定时写入，最后写入一次并注销 MBean
+     */
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        publish();
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                log.warn("Failed to unregister statistics MBean {}", objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * 把当前的计数写入 JMeter 属性
+     */
+    void publish() {
+        for (int i = 0; i < variables.length; i++) {
+            long[] counts = sum(i);
+            double[] targets = targets(i);
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            String prefix = PROPERTY_PREFIX + element + '.' + variables[i] + '.';
+            JMeterUtils.setProperty(prefix + "total", Long.toString(total));
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                double actual = total > 0 ? counts[bucket] * 100.0d / total : 0;
+                String key = prefix + (tables[i].row(bucket) + 1) + '.';
+                JMeterUtils.setProperty(key + "count", Long.toString(counts[bucket]));
+                JMeterUtils.setProperty(key + "target", percent(targets[bucket]));
+                JMeterUtils.setProperty(key + "actual", percent(actual));
+                JMeterUtils.setProperty(key + "deviation", percent(actual - targets[bucket]));
+            }
+        }
+    }
+
+    private static String percent(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private long[] sum(int variable) {
+        LongAdder[] adders = counters[variable];
+        long[] counts = new long[adders.length];
+        for (int bucket = 0; bucket < adders.length; bucket++) {
+            counts[bucket] = adders[bucket].sum();
+        }
+        return counts;
+    }
+
+    private int bucketCount() {
+        int count = 0;
+        for (LongAdder[] adders : counters) {
+            count += adders.length;
+        }
+        return count;
+    }
+
+    @Override
+    public String[] getBuckets() {
+        String[] buckets = new String[bucketCount()];
+        int index = 0;
+        for (int i = 0; i < variables.length; i++) {
+            for (int bucket = 0; bucket < counters[i].length; bucket++) {
+                buckets[index++] = variables[i] + '#' + (tables[i].row(bucket) + 1);
+            }
+        }
+        return buckets;
+    }
+
+    @Override
+    public long[] getCounts() {
+        long[] counts = new long[bucketCount()];
+        int index = 0;
+        for (int i = 0; i < variables.length; i++) {
+            for (long count : sum(i)) {
+                counts[index++] = count;
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public double[] getTargetPercentages() {
+        double[] percentages = new double[bucketCount()];
+        int index = 0;
+        for (int i = 0; i < variables.length; i++) {
+            for (double value : targets(i)) {
+                percentages[index++] = value;
+            }
+        }
+        return percentages;
+    }
+
+    @Override
+    public double[] getActualPercentages() {
+        double[] percentages = new double[bucketCount()];
+        int index = 0;
+        for (int i = 0; i < variables.length; i++) {
+            long[] counts = sum(i);
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            for (long count : counts) {
+                percentages[index++] = total > 0 ? count * 100.0d / total : 0;
+            }
+        }
+        return percentages;
+    }
+
+    @Override
+    public double[] getDeviations() {
+        double[] actual = getActualPercentages();
+        double[] target = getTargetPercentages();
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] -= target[i];
+        }
+        return actual;
+    }
+
+    @Override
+    public double getMaxDeviation() {
+        double max = 0;
+        for (double deviation : getDeviations()) {
+            max = Math.max(max, Math.abs(deviation));
+        }
+        return max;
+    }
+
+    @Override
+    public long getTotal() {
+        long total = 0;
+        for (long count : getCounts()) {
+            total += count;
+        }
+        return total;
+    }
+}
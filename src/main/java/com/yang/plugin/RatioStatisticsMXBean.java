@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName RatioStatisticsMXBean
+ * @Description 通过 JMX 查看各配置行实际产生的数量与占比，数组按 {@link #getBuckets()} 的顺序排列
+ * @Version 1.0
+ */
+public interface RatioStatisticsMXBean {
+
+    /**
+     * @return 各区间的名称，格式为 变量名#配置行号
+     */
+    String[] getBuckets();
+
+    /**
+     * @return 各区间已产生的数量
+     */
+    long[] getCounts();
+
+    /**
+     * @return 各区间在所属变量中配置的占比（百分比）
+     */
+    double[] getTargetPercentages();
+
+    /**
+     * @return 各区间在所属变量中实际的占比（百分比）
+     */
+    double[] getActualPercentages();
+
+    /**
+     * @return 实际占比减去配置占比（百分点）
+     */
+    double[] getDeviations();
+
+    /**
+     * @return 所有区间偏差绝对值的最大值（百分点）
+     */
+    double getMaxDeviation();
+
+    /**
+     * @return 所有变量已产生的值的总数
+     */
+    long getTotal();
+}
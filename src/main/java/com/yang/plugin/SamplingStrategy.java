@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName SamplingStrategy
+ * @Description 区间选择策略
+ * @Version 1.0
+ */
+public enum SamplingStrategy {
+
+    /**
+     * 每次选择当前实际占比与配置占比差距最大的区间，保证产出严格贴合配置占比
+     */
+    DEFICIT("按占比补齐"),
+
+    /**
+     * 按配置占比独立抽样，只在统计意义上符合配置占比
+     */
+    PROBABILISTIC("按概率抽样");
+
+    private final String label;
+
+    SamplingStrategy(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #DEFICIT}
+     *
+     * @param value 属性值
+     * @return 对应的策略
+     */
+    public static SamplingStrategy of(String value) {
+        return Enums.of(SamplingStrategy.class, value, DEFICIT);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
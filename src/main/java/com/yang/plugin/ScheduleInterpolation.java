@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName ScheduleInterpolation
+ * @Description 占比计划中两个时间点之间的占比变化方式
+ * @Version 1.0
+ */
+public enum ScheduleInterpolation {
+
+    /**
+     * 到达时间点时切换为该时间点的占比
+     */
+    STEP("阶梯"),
+
+    /**
+     * 两个时间点之间按时间线性过渡
+     */
+    LINEAR("线性");
+
+    private final String label;
+
+    ScheduleInterpolation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #STEP}
+     *
+     * @param value 属性值
+     * @return 对应的变化方式
+     */
+    public static ScheduleInterpolation of(String value) {
+        return Enums.of(ScheduleInterpolation.class, value, STEP);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName SequenceMode
+ * @Description 取值序列的录制与回放
+ * @Version 1.0
+ */
+public enum SequenceMode {
+
+    /**
+     * 正常生成，不录制
+     */
+    OFF("不录制"),
+
+    /**
+     * 正常生成，同时把每个线程每次迭代写入的取值追加到序列文件
+     */
+    RECORD("录制取值序列"),
+
+    /**
+     * 不再生成，按线程从序列文件中依次读出录制的取值写入变量
+     */
+    REPLAY("回放取值序列");
+
+    private final String label;
+
+    SequenceMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #OFF}
+     *
+     * @param value 属性值
+     * @return 对应的录制方式
+     */
+    public static SequenceMode of(String value) {
+        return Enums.of(SequenceMode.class, value, OFF);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
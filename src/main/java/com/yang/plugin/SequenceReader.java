@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @ClassName SequenceReader
+ * @Description 以只读方式映射 {@link SequenceWriter} 写出的序列文件，按线程名回放录制的取值。
+ * 打开时用定位读取扫描一遍块头，记录每个线程各块的位置；回放时从映射的内存中解码，不做文件读取。
+ * 线程进入一块时由后台线程提前访问之后几块所在的页，读到时通常已在内存中，迭代中不会因缺页等待磁盘
+ * @Version 1.0
+ */
+final class SequenceReader {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceReader.class);
+
+    private static final int PAGE_SIZE = 4096;
+    /**
+     * 每个线程提前访问的块数
+     */
+    private static final int PREFETCH_BLOCKS = 4;
+
+    private final String element;
+    private final Path path;
+    private final ByteBuffer mapped;
+    /**
+     * 文件中每次迭代的取值个数
+     */
+    private final int recorded;
+    /**
+     * 各变量在录制的取值中的下标，文件中没有该变量时为 -1
+     */
+    private final int[] mapping;
+    /**
+     * 按线程名排列的块位置，依次为每块载荷的起始位置和长度
+     */
+    private final Map<String, int[]> streams;
+    private final AtomicBoolean missing = new AtomicBoolean();
+    private final AtomicBoolean exhausted = new AtomicBoolean();
+    private ExecutorService prefetcher;
+    /**
+     * 预读的结果写到这里，避免访问被优化掉
+     */
+    private volatile int sink;
+
+    private SequenceReader(String element, Path path, ByteBuffer mapped, int recorded, int[] mapping,
+                           Map<String, int[]> streams) {
+        this.element = element;
+        this.path = path;
+        this.mapped = mapped;
+        this.recorded = recorded;
+        this.mapping = mapping;
+        this.streams = streams;
+    }
+
+    /**
+     * 用定位读取扫描文件头和各线程的块，按变量名对应录制的取值，再映射整个文件。
+     * 只为校验而编译时只扫描，不映射文件
+     *
+     * @param element  元件名
+     * @param path     序列文件
+     * @param names    全部变量名
+     * @param problems 收集文件无法读取、变量不在文件中等问题
+     * @return 回放器，文件无法使用或只校验时返回 null
+     */
+    static SequenceReader open(String element, Path path, String[] names, CompileProblems problems) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                problems.error(log, "Value sequence {} of {} is larger than 2GB", path, element);
+                return null;
+            }
+            ByteBuffer header = read(channel, 0, (int) Math.min(size, PAGE_SIZE));
+            if (header.remaining() < 16 || header.getLong() != SequenceWriter.MAGIC
+                    || header.getInt() != SequenceWriter.VERSION) {
+                problems.error(log, "{} is not a value sequence recorded by {}", path, element);
+                return null;
+            }
+            String[] recordedNames;
+            for (; ; ) {
+                try {
+                    recordedNames = new String[header.getInt()];
+                    for (int i = 0; i < recordedNames.length; i++) {
+                        recordedNames[i] = decode(header, readVarint(header));
+                    }
+                    break;
+                } catch (BufferUnderflowException e) {
+                    // 变量名超出已读取的部分时读取更多
+                    if (header.limit() == size) {
+                        throw e;
+                    }
+                    header = read(channel, 0, (int) Math.min(size, header.limit() * 2L));
+                    header.position(12);
+                }
+            }
+            Map<String, List<Integer>> blocks = new HashMap<>();
+            ByteBuffer blockHeader = ByteBuffer.allocate(SequenceWriter.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            long position = header.position();
+            while (size - position >= SequenceWriter.BLOCK_HEADER_SIZE) {
+                blockHeader.clear();
+                read(channel, position, blockHeader);
+                int payloadLength = blockHeader.getInt(0);
+                int streamLength = blockHeader.getInt(4);
+                position += SequenceWriter.BLOCK_HEADER_SIZE;
+                if (payloadLength < 0 || streamLength < 0 || size - position - streamLength < payloadLength) {
+                    problems.warn(log, "Value sequence {} of {} is truncated, replaying the complete blocks only",
+                            path, element);
+                    break;
+                }
+                String stream = decode(read(channel, position, streamLength), streamLength);
+                position += streamLength;
+                List<Integer> positions = blocks.computeIfAbsent(stream, k -> new ArrayList<>());
+                positions.add((int) position);
+                positions.add(payloadLength);
+                position += payloadLength;
+            }
+            Map<String, int[]> streams = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> entry : blocks.entrySet()) {
+                streams.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            if (streams.isEmpty()) {
+                problems.warn(log, "Value sequence {} of {} contains no values, values are generated instead",
+                        path, element);
+            }
+            int[] mapping = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                mapping[i] = -1;
+                for (int r = 0; r < recordedNames.length; r++) {
+                    if (recordedNames[r].equals(names[i])) {
+                        mapping[i] = r;
+                    }
+                }
+                if (mapping[i] < 0) {
+                    problems.error(log, "Variable {} of {} is not in the value sequence {} and will not be written",
+                            names[i], element, path);
+                }
+            }
+            if (problems.validating()) {
+                return null;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            log.info("Mapped the value sequence {} of {} with {} threads", path, element, streams.size());
+            return new SequenceReader(element, path, mapped, recordedNames.length, mapping, streams);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            problems.error(log, "Failed to open the value sequence {} of {}: {}", path, element, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 测试开始时调用，启动预读线程
+     */
+    void start() {
+        prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RandomParameter-sequence-prefetch-" + element);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void stop() {
+        if (prefetcher != null) {
+            prefetcher.shutdownNow();
+            prefetcher = null;
+        }
+    }
+
+    /**
+     * @param stream 线程名
+     * @return 当前线程独占的回放游标，文件中没有该线程时返回 null，由该线程正常生成
+     */
+    Cursor newCursor(String stream) {
+        int[] blocks = streams.get(stream);
+        if (blocks == null) {
+            if (missing.compareAndSet(false, true)) {
+                log.warn("No recorded values for thread {} in {} of {}, values are generated instead", stream,
+                        path, element);
+            }
+            return null;
+        }
+        return new Cursor(stream, blocks);
+    }
+
+    /**
+     * 在预读线程中访问一块所在的每一页
+     */
+    private void prefetch(int[] blocks, int block) {
+        ExecutorService executor = prefetcher;
+        if (executor == null || block * 2 >= blocks.length) {
+            return;
+        }
+        int start = blocks[block * 2];
+        int end = start + blocks[block * 2 + 1];
+        executor.execute(() -> {
+            int sum = 0;
+            for (int position = start; position < end; position += PAGE_SIZE) {
+                sum += mapped.get(position);
+            }
+            sink = sum;
+        });
+    }
+
+    /**
+     * @return 从 position 开始读取的 length 个字节，文件不足时只包含读到的部分
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        read(channel, position, buffer);
+        return buffer;
+    }
+
+    private static void read(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, position)) >= 0) {
+            position += read;
+        }
+        buffer.flip();
+    }
+
+    private static String decode(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * 一个线程的回放游标，只能在该线程中使用；录制的取值用完后从头再来并记录一次警告
+     */
+    final class Cursor {
+
+        private final String stream;
+        private final int[] blocks;
+        private final ByteBuffer view;
+        private final String[] values = new String[recorded];
+        private byte[] scratch = new byte[64];
+        private int block = -1;
+
+        private Cursor(String stream, int[] blocks) {
+            this.stream = stream;
+            this.blocks = blocks;
+            this.view = mapped.duplicate();
+            view.limit(0);
+            for (int i = 0; i < PREFETCH_BLOCKS; i++) {
+                prefetch(blocks, i);
+            }
+        }
+
+        /**
+         * 读出下一次迭代录制的取值并写入变量，本次迭代没有写入的变量保持不变
+         *
+         * @param variables 当前线程的变量
+         * @param names     全部变量名
+         */
+        void apply(JMeterVariables variables, String[] names) {
+            if (!view.hasRemaining()) {
+                advance();
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = next();
+            }
+            for (int i = 0; i < names.length; i++) {
+                int index = mapping[i];
+                if (index >= 0 && values[index] != null) {
+                    variables.put(names[i], values[index]);
+                }
+            }
+        }
+
+        private void advance() {
+            block++;
+            if (block * 2 == blocks.length) {
+                block = 0;
+                if (exhausted.compareAndSet(false, true)) {
+                    log.warn("Recorded values of thread {} in {} of {} have been used, replaying from the start",
+                            stream, path, element);
+                }
+            }
+            int start = blocks[block * 2];
+            view.limit(view.capacity());
+            view.position(start);
+            view.limit(start + blocks[block * 2 + 1]);
+            prefetch(blocks, block + PREFETCH_BLOCKS);
+        }
+
+        private String next() {
+            int length = readVarint(view) - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            view.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
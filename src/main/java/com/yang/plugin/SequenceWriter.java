@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName SequenceWriter
+ * @Description 把每个线程每次迭代写入的取值追加到二进制序列文件，供之后的测试按线程回放。
+ * 文件为小端序：文件头为标识、版本、变量个数和各变量名；之后是若干块，每块为 载荷长度(int)、线程名长度(int)、线程名、载荷，
+ * 载荷按迭代依次排列各变量的取值，每个取值为 变长整数(UTF-8 字节数 + 1，0 表示本次没有写入) 加 UTF-8 字节，块内只包含完整的迭代。
+ * 每个线程先编码到自己的块中，块写满后交给后台线程写入文件，迭代中只有内存拷贝，没有阻塞的 I/O
+ * @Version 1.0
+ */
+final class SequenceWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceWriter.class);
+
+    /**
+     * 文件标识
+     */
+    static final long MAGIC = 0x3151455352505200L;
+    static final int VERSION = 1;
+    static final int BLOCK_HEADER_SIZE = 8;
+
+    /**
+     * 每个线程的块大小；超过 3/4 后在迭代结束时交给后台线程，单次迭代超出剩余空间时临时扩大
+     */
+    private static final int BLOCK_SIZE = 8192;
+    private static final int FLUSH_THRESHOLD = BLOCK_SIZE / 4 * 3;
+
+    private final String element;
+    private final Path path;
+    private final FileChannel channel;
+    /**
+     * 单线程按提交顺序写入，队列不设上限，提交永远不会阻塞测试线程
+     */
+    private final ExecutorService executor;
+    /**
+     * 后台线程写完后归还的块，测试线程优先复用
+     */
+    private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+    /**
+     * 尚未在所属线程中交出剩余迭代的录制器个数，测试结束时仍不为 0 说明有线程没有正常结束
+     */
+    private final AtomicInteger open = new AtomicInteger();
+    /**
+     * 关闭后仍有线程提交时只警告一次
+     */
+    private final AtomicBoolean lateWarned = new AtomicBoolean();
+    /**
+     * 只由后台线程使用
+     */
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private boolean failed;
+
+    private SequenceWriter(String element, Path path, FileChannel channel) {
+        this.element = element;
+        this.path = path;
+        this.channel = channel;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RandomParameter-sequence-writer-" + element);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 创建（覆盖）序列文件并写入文件头
+     *
+     * @param element 元件名
+     * @param path    序列文件
+     * @param names   全部变量名，按写入顺序排列
+     * @return 写入器
+     * @throws IOException 文件无法创建时抛出
+     */
+    static SequenceWriter open(String element, Path path, String[] names) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(names.length);
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (header.remaining() < bytes.length + 5) {
+                    header = grow(header, bytes.length + 5);
+                }
+                putVarint(header, bytes.length);
+                header.put(bytes);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new SequenceWriter(element, path, channel);
+    }
+
+    /**
+     * @param stream 线程名，回放时按该名称找到对应线程录制的取值
+     * @return 当前线程独占的录制器
+     */
+    Recorder newRecorder(String stream) {
+        open.incrementAndGet();
+        return new Recorder(stream.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 测试结束时调用，各线程已在结束时交出自己缓冲中的迭代，等待后台线程写完后关闭文件。
+     * 录制器不加锁，这里不替其他线程交出缓冲；仍未结束的线程缓冲中的迭代不写入
+     */
+    void close() {
+        int unfinished = open.get();
+        if (unfinished > 0) {
+            log.warn("{} thread(s) of {} had not finished, their last buffered iterations are not recorded in {}",
+                    unfinished, element, path);
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Timed out writing the value sequence {} of {}", path, element);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+            log.info("Recorded the value sequence of {} to {}", element, path);
+        } catch (IOException e) {
+            log.warn("Failed to close the value sequence {} of {}", path, element, e);
+        }
+    }
+
+    /**
+     * 在后台线程中写入一块，写完后归还到复用队列
+     */
+    private void write(byte[] stream, ByteBuffer payload) {
+        if (failed) {
+            return;
+        }
+        blockHeader.clear();
+        blockHeader.putInt(payload.remaining()).putInt(stream.length).flip();
+        ByteBuffer[] buffers = {blockHeader, ByteBuffer.wrap(stream), payload};
+        try {
+            while (payload.hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            // 之后的块不再写入，避免文件中出现不完整的块
+            failed = true;
+            log.error("Failed to write the value sequence {} of {}, recording stopped", path, element, e);
+            return;
+        }
+        if (payload.capacity() == BLOCK_SIZE) {
+            payload.clear();
+            pool.offer(payload);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 一个线程的录制器，只能在该线程中使用
+     */
+    final class Recorder {
+
+        private final byte[] stream;
+        /**
+         * 当前块，交给后台线程后为 null，下次写入时再取
+         */
+        private ByteBuffer buffer;
+        private boolean closed;
+
+        private Recorder(byte[] stream) {
+            this.stream = stream;
+        }
+
+        /**
+         * 追加一个变量的取值
+         *
+         * @param value 取值，为 null 时表示本次迭代没有写入该变量
+         */
+        void record(String value) {
+            if (value == null) {
+                ensure(1);
+                buffer.put((byte) 0);
+                return;
+            }
+            int length = value.length();
+            if (isAscii(value)) {
+                ensure(length + 5);
+                putVarint(buffer, length + 1);
+                for (int i = 0; i < length; i++) {
+                    buffer.put((byte) value.charAt(i));
+                }
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                ensure(bytes.length + 5);
+                putVarint(buffer, bytes.length + 1);
+                buffer.put(bytes);
+            }
+        }
+
+        /**
+         * 一次迭代的全部取值写完后调用，块接近写满时交给后台线程
+         */
+        void endIteration() {
+            if (buffer != null && buffer.position() >= FLUSH_THRESHOLD) {
+                submit();
+            }
+        }
+
+        /**
+         * 线程结束时在所属线程中调用，交出缓冲中剩余的迭代
+         */
+        void flush() {
+            if (!closed) {
+                closed = true;
+                submit();
+                open.decrementAndGet();
+            }
+        }
+
+        private void submit() {
+            if (buffer == null || buffer.position() == 0) {
+                return;
+            }
+            ByteBuffer payload = buffer;
+            buffer = null;
+            payload.flip();
+            try {
+                executor.execute(() -> write(stream, payload));
+            } catch (RejectedExecutionException e) {
+                // 测试结束后才提交的块丢弃，不影响测试线程
+                if (lateWarned.compareAndSet(false, true)) {
+                    log.warn("Value sequence {} of {} is already closed, later iterations are not recorded",
+                            path, element);
+                }
+            }
+        }
+
+        private void ensure(int needed) {
+            if (buffer == null) {
+                buffer = pool.poll();
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocate(BLOCK_SIZE);
+                }
+            }
+            if (buffer.remaining() < needed) {
+                buffer = grow(buffer, needed);
+            }
+        }
+
+        private boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
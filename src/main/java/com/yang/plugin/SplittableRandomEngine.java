@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import java.util.SplittableRandom;
+
+/**
+ * @ClassName SplittableRandomEngine
+ * @Description 基于 {@link SplittableRandom} 的引擎，每个线程一个实例
+ * @Version 1.0
+ */
+final class SplittableRandomEngine extends RandomEngine {
+
+    private final SplittableRandom random;
+
+    SplittableRandomEngine(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    long nextLong(long bound) {
+        return random.nextLong(bound);
+    }
+}
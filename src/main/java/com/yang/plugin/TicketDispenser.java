@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterContextService;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName TicketDispenser
+ * @Description 全局占比模式下所有线程共享的号码分配器。
+ * 第 n 个号码对应区间 cumulative(frac(n / φ))，累计占比取自使用号码时生效的 {@link BucketWeights} 快照，黄金分割 Weyl 序列的低差异性保证任意前缀中各区间的数量与占比的偏差为 O(log n)。
+ * 线程按批领取连续号码，只有领取时才访问共享计数器；批大小随已发号数增长，使未用完的号码占比不超过容差。
+ * 分布式测试中各引擎按 {@link EnginePartition} 交错使用全局号码，所有引擎合起来仍是连续的号码
+ * @Version 1.0
+ */
+final class TicketDispenser {
+
+    private static final int MAX_BATCH = 4096;
+
+    private final double tolerance;
+    /**
+     * 当前引擎的划分，由它把本引擎的号码映射为全局号码
+     */
+    final EnginePartition partition;
+    private final AtomicLong issued = new AtomicLong();
+    /**
+     * 线程结束时未用完的号码段，优先分配给其他线程，避免全局占比出现永久缺口
+     */
+    private final ConcurrentLinkedQueue<long[]> returned = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param tolerance 全局占比容差
+     * @param partition 当前引擎的划分
+     */
+    TicketDispenser(double tolerance, EnginePartition partition) {
+        this.tolerance = tolerance;
+        this.partition = partition;
+    }
+
+    /**
+     * @param ticket     号码
+     * @param cumulative 归一化后的累计占比，不能为空
+     * @return 号码对应的区间
+     */
+    static int bucket(long ticket, double[] cumulative) {
+        return BucketWeights.search(cumulative, ((ticket * RandomEngine.GOLDEN_GAMMA) >>> 11) * 0x1.0p-53);
+    }
+
+    /**
+     * 批大小 = 容差 * 已发号数 / 活动线程数，即所有线程手中未用完的号码不超过已发号数的容差比例
+     *
+     * @return 下一批的号码数
+     */
+    int batchSize() {
+        int threads = Math.max(1, JMeterContextService.getNumberOfThreads());
+        double batch = tolerance * issued.get() / threads;
+        return batch < 1 ? 1 : (int) Math.min(batch, MAX_BATCH);
+    }
+
+    /**
+     * @param batch 号码数
+     * @return 领到的第一个号码
+     */
+    long claim(int batch) {
+        return issued.getAndAdd(batch);
+    }
+
+    /**
+     * @return 其他线程退回的号码段 [start, end)，没有时返回 null
+     */
+    long[] pollReturned() {
+        return returned.poll();
+    }
+
+    void giveBack(long start, long end) {
+        returned.offer(new long[]{start, end});
+    }
+}
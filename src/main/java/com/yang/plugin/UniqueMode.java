@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName UniqueMode
+ * @Description 整数区间的取值去重方式
+ * @Version 1.0
+ */
+public enum UniqueMode {
+
+    /**
+     * 行内独立取值，允许重复
+     */
+    NONE("允许重复"),
+
+    /**
+     * 每个线程按自己的置换依次取值，同一线程内不重复，不同线程之间可能重复
+     */
+    THREAD("线程内不重复"),
+
+    /**
+     * 所有线程共用一个置换，通过原子游标分段领取，整个测试中不重复
+     */
+    GLOBAL("全局不重复");
+
+    private final String label;
+
+    UniqueMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 解析属性值，空值或无法识别时使用默认的 {@link #NONE}
+     *
+     * @param value 属性值
+     * @return 对应的去重方式
+     */
+    public static UniqueMode of(String value) {
+        return Enums.of(UniqueMode.class, value, NONE);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
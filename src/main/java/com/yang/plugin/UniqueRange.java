@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @ClassName UniqueRange
+ * @Description 不重复取值的整数区间，所有线程共享。全局不重复时所有线程共用一个置换，
+ * 每个线程通过原子游标一次领取一段连续的下标，领取后在线程内依次取值，不再竞争；
+ * 线程内不重复时每个线程用自己的密钥生成置换。区间取完后从头再来，此时会出现重复，只记录一次日志。
+ * 分布式测试中全局不重复时各引擎使用相同的置换，只在置换下标中本引擎负责的连续子区间内领取，各引擎之间也不重复
+ * @Version 1.0
+ */
+final class UniqueRange {
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueRange.class);
+
+    /**
+     * 全局不重复时每次领取的最大下标个数
+     */
+    static final int MAX_CHUNK = 1024;
+
+    private final String description;
+    private final long size;
+    /**
+     * 全局不重复时本引擎负责的置换下标子区间 [offset, offset + length)，否则为整个区间
+     */
+    private final long offset;
+    private final long length;
+    /**
+     * 全局不重复时共用的置换，线程内不重复时为 null
+     */
+    private final FeistelPermutation permutation;
+    private final AtomicLong cursor = new AtomicLong();
+    private final int chunk;
+    private final AtomicBoolean exhausted = new AtomicBoolean();
+
+    /**
+     * @param description 日志中使用的区间描述
+     * @param size        区间的取值个数，大于 0
+     * @param global      是否全局不重复
+     * @param key         全局置换的密钥，分布式测试中各引擎必须相同
+     * @param partition   当前引擎的划分，只作用于全局不重复；本引擎的子区间不能为空
+     */
+    UniqueRange(String description, long size, boolean global, long key, EnginePartition partition) {
+        this.description = description;
+        this.size = size;
+        this.permutation = global ? new FeistelPermutation(size, key) : null;
+        this.offset = global ? partition.start(size) : 0;
+        this.length = global ? partition.length(size) : size;
+        // 区间较小时每次少领一些，避免个别线程领走大部分取值
+        this.chunk = (int) Math.max(1, Math.min(MAX_CHUNK, length >>> 12));
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎，线程内不重复时用来生成该线程的密钥
+     * @return 当前线程独占的游标
+     */
+    Cursor newCursor(RandomEngine random) {
+        return new Cursor(permutation != null ? permutation : new FeistelPermutation(size, random.nextLong()));
+    }
+
+    private void exhausted() {
+        if (exhausted.compareAndSet(false, true)) {
+            log.warn("All {} values of {} have been used, values will repeat from now on", length, description);
+        }
+    }
+
+    /**
+     * 一个线程在一个区间上的取值位置
+     */
+    final class Cursor {
+
+        private final FeistelPermutation permutation;
+        private long next;
+        private long end;
+
+        private Cursor(FeistelPermutation permutation) {
+            this.permutation = permutation;
+        }
+
+        /**
+         * @return 下一个未取过的值相对区间下界的偏移
+         */
+        long next() {
+            if (next == end) {
+                claim();
+            }
+            return permutation.apply(offset + next++);
+        }
+
+        private void claim() {
+            if (UniqueRange.this.permutation != null) {
+                long position = cursor.getAndAdd(chunk);
+                if (position >= length) {
+                    exhausted();
+                }
+                next = position % length;
+                end = Math.min(length, next + chunk);
+            } else {
+                // 线程内不重复：独占整个区间
+                if (end == length) {
+                    exhausted();
+                }
+                next = 0;
+                end = length;
+            }
+        }
+    }
+}
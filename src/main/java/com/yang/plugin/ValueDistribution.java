@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName ValueDistribution
+ * @Description 配置行内非均匀分布的采样器，在编译时按行预先计算好常量，只读，所有线程共享；采样不分配对象。
+ * 连续分布精确截断到 [下界, 上界]：指数分布用截断后的逆分布函数，正态和对数正态分布按截断区间的位置选择
+ * Robert (1995) 的建议分布做拒绝采样，区间落在分布尾部时期望采样次数仍是常数
+ * @Version 1.0
+ */
+abstract class ValueDistribution {
+
+    final double lower;
+    final double upper;
+
+    ValueDistribution(double lower, double upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * 按分布类型和参数创建采样器。整数取值先在 [min-0.5, max+0.5] 内截断再四舍五入，使两端的整数与中间的整数宽度相同
+     *
+     * @param type       分布类型
+     * @param parameters 逗号分隔的参数，为空时使用默认值
+     * @param min        下界
+     * @param max        上界
+     * @param integer    是否取整数
+     * @return 采样器，均匀分布时返回 null，由调用方走原有的均匀取值
+     * @throws IllegalArgumentException 参数个数或取值不合法
+     */
+    static ValueDistribution create(DistributionType type, String parameters, double min, double max,
+                                    boolean integer) {
+        if (type == DistributionType.UNIFORM) {
+            return null;
+        }
+        if (!(max >= min)) {
+            throw new IllegalArgumentException("max < min");
+        }
+        double[] p = parse(parameters);
+        if (type == DistributionType.ZIPF) {
+            requireCount(type, p, 1);
+            return new Zipf(min, max, p.length > 0 ? p[0] : 1.0d);
+        }
+        double lower = integer ? min - 0.5d : min;
+        double upper = integer ? max + 0.5d : max;
+        switch (type) {
+            case NORMAL:
+                requireCount(type, p, 2);
+                return new Normal(lower, upper, p.length > 0 ? p[0] : (min + max) / 2,
+                        p.length > 1 ? p[1] : (max - min) / 6);
+            case EXPONENTIAL:
+                requireCount(type, p, 1);
+                // 整数行从 min-0.5 开始衰减，极小值占满整个单元，各整数的概率单调递减
+                return new Exponential(lower, upper, lower, p.length > 0 ? p[0] : 4 / (max - min));
+            case LOG_NORMAL:
+            default:
+                requireCount(type, p, 2);
+                if (p.length == 0 && !(min > 0)) {
+                    throw new IllegalArgumentException(type.name() + " needs mu,sigma when min <= 0");
+                }
+                return new LogNormal(lower, upper, p.length > 0 ? p[0] : (Math.log(min) + Math.log(max)) / 2,
+                        p.length > 1 ? p[1] : (Math.log(max) - Math.log(min)) / 6);
+        }
+    }
+
+    private static double[] parse(String parameters) {
+        if (parameters == null || parameters.trim().isEmpty()) {
+            return new double[0];
+        }
+        String[] parts = parameters.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim());
+        }
+        return values;
+    }
+
+    private static void requireCount(DistributionType type, double[] parameters, int count) {
+        if (parameters.length != 0 && parameters.length != count) {
+            throw new IllegalArgumentException(type.name() + " expects " + count + " parameter(s), got "
+                    + parameters.length);
+        }
+    }
+
+    private static void requireFinite(String name, double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException(name + " must be finite: " + value);
+        }
+    }
+
+    private static void requirePositive(String name, double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return [下界, 上界] 内的取值
+     */
+    abstract double sample(RandomEngine random);
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 四舍五入到整数的取值
+     */
+    long sampleLong(RandomEngine random) {
+        long value = (long) Math.floor(sample(random) + 0.5d);
+        // 取整后落在上界 max+0.5 上时退回 max
+        return (double) value > upper ? value - 1 : value;
+    }
+
+    private static double clamp(double value, double lower, double upper) {
+        return value < lower ? lower : Math.min(value, upper);
+    }
+
+    /**
+     * 截断到 [a, b] 的标准正态分布，a、b 可以是无穷。按区间位置选择建议分布（Robert 1995）：
+     * 区间包含 0 且宽度不小于 1 时直接用 ziggurat 采样并拒绝区间外的值；区间较窄时用均匀建议分布；
+     * 区间在单侧尾部且较宽时用从区间端点开始的平移指数分布。各情况的接受率都有常数下界
+     */
+    static final class TruncatedStandardNormal {
+
+        private static final int NORMAL = 0;
+        private static final int UNIFORM = 1;
+        private static final int TAIL = 2;
+
+        private final int method;
+        /**
+         * 区间在左侧尾部时把区间翻转到右侧采样，结果取反
+         */
+        private final double sign;
+        private final double a;
+        private final double b;
+        /**
+         * 区间中离 0 最近的点，均匀建议分布的接受率为 exp((near^2 - z^2) / 2)
+         */
+        private final double near;
+        /**
+         * 尾部指数建议分布的速率
+         */
+        private final double alpha;
+
+        TruncatedStandardNormal(double a, double b) {
+            if (Double.isNaN(a) || Double.isNaN(b) || b < a) {
+                throw new IllegalArgumentException("empty range");
+            }
+            if (a <= 0 && b >= 0) {
+                this.sign = 1.0d;
+                this.a = a;
+                this.b = b;
+                this.method = b - a >= 1.0d ? NORMAL : UNIFORM;
+                this.near = 0.0d;
+                this.alpha = 0.0d;
+                return;
+            }
+            this.sign = a > 0 ? 1.0d : -1.0d;
+            this.a = a > 0 ? a : -b;
+            this.b = a > 0 ? b : -a;
+            this.method = (this.b - this.a) * (this.a + this.b) <= 2.0d ? UNIFORM : TAIL;
+            this.near = this.a;
+            this.alpha = (this.a + Math.sqrt(this.a * this.a + 4.0d)) / 2;
+        }
+
+        double sample(RandomEngine random) {
+            double z;
+            switch (method) {
+                case NORMAL:
+                    do {
+                        z = Ziggurat.normal(random);
+                    } while (z < a || z > b);
+                    return z;
+                case UNIFORM:
+                    // 与标准指数分布的取值比较以免计算 exp
+                    do {
+                        z = a + (b - a) * random.nextDouble();
+                    } while (Ziggurat.exponential(random) < (z - near) * (z + near) / 2);
+                    return sign * z;
+                case TAIL:
+                default:
+                    double t;
+                    do {
+                        z = a + Ziggurat.exponential(random) / alpha;
+                        t = z - alpha;
+                    } while (z > b || Ziggurat.exponential(random) < t * t / 2);
+                    return sign * z;
+            }
+        }
+    }
+
+    private static final class Normal extends ValueDistribution {
+
+        private final double mean;
+        private final double deviation;
+        private final TruncatedStandardNormal standard;
+
+        Normal(double lower, double upper, double mean, double deviation) {
+            super(lower, upper);
+            requireFinite("mean", mean);
+            requirePositive("standard deviation", deviation);
+            this.mean = mean;
+            this.deviation = deviation;
+            this.standard = new TruncatedStandardNormal((lower - mean) / deviation, (upper - mean) / deviation);
+        }
+
+        @Override
+        double sample(RandomEngine random) {
+            return clamp(mean + deviation * standard.sample(random), lower, upper);
+        }
+    }
+
+    /**
+     * 截断指数分布的逆分布函数：x = origin - log(1 - u * (1 - exp(-λ(upper - origin)))) / λ
+     */
+    private static final class Exponential extends ValueDistribution {
+
+        private final double origin;
+        private final double scale;
+        private final double mass;
+
+        Exponential(double lower, double upper, double origin, double rate) {
+            super(lower, upper);
+            requirePositive("rate", rate);
+            this.origin = origin;
+            this.scale = 1 / rate;
+            this.mass = Math.expm1(-(upper - origin) * rate);
+        }
+
+        @Override
+        double sample(RandomEngine random) {
+            return clamp(origin - scale * Math.log1p(random.nextDouble() * mass), lower, upper);
+        }
+    }
+
+    /**
+     * 对数空间中截断到 [log(下界), log(上界)] 的正态分布，下界不大于 0 时左侧不截断
+     */
+    private static final class LogNormal extends ValueDistribution {
+
+        private final double mu;
+        private final double sigma;
+        private final TruncatedStandardNormal standard;
+
+        LogNormal(double lower, double upper, double mu, double sigma) {
+            super(lower, upper);
+            requireFinite("mu", mu);
+            requirePositive("sigma", sigma);
+            if (!(upper > 0)) {
+                throw new IllegalArgumentException("max must be positive");
+            }
+            this.mu = mu;
+            this.sigma = sigma;
+            this.standard = new TruncatedStandardNormal(
+                    lower > 0 ? (Math.log(lower) - mu) / sigma : Double.NEGATIVE_INFINITY,
+                    (Math.log(upper) - mu) / sigma);
+        }
+
+        @Override
+        double sample(RandomEngine random) {
+            return clamp(Math.exp(mu + sigma * standard.sample(random)), lower, upper);
+        }
+    }
+
+    /**
+     * Hörmann &amp; Derflinger 的 rejection-inversion 方法，在 [min, max] 的整数上取值，
+     * 排名 k（从 1 开始）的概率与 1/k^s 成正比；每次采样的期望代价是常数，与取值个数无关
+     */
+    private static final class Zipf extends ValueDistribution {
+
+        private final long origin;
+        private final double count;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralCount;
+        private final double threshold;
+
+        Zipf(double min, double max, double exponent) {
+            super(Math.ceil(min), Math.floor(max));
+            requirePositive("exponent", exponent);
+            if (upper < lower) {
+                throw new IllegalArgumentException("no integer in range");
+            }
+            this.origin = (long) lower;
+            this.count = upper - lower + 1;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5d) - 1.0d;
+            this.hIntegralCount = hIntegral(count + 0.5d);
+            this.threshold = 2.0d - hIntegralInverse(hIntegral(2.5d) - h(2.0d));
+        }
+
+        @Override
+        double sample(RandomEngine random) {
+            return sampleLong(random);
+        }
+
+        @Override
+        long sampleLong(RandomEngine random) {
+            for (; ; ) {
+                double u = hIntegralCount + random.nextDouble() * (hIntegralX1 - hIntegralCount);
+                double x = hIntegralInverse(u);
+                double k = Math.floor(x + 0.5d);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > count) {
+                    k = count;
+                }
+                if (k - x <= threshold || u >= hIntegral(k + 0.5d) - h(k)) {
+                    return origin + (long) k - 1;
+                }
+            }
+        }
+
+        /**
+         * H(x) = ((x^(1-s)) - 1) / (1 - s)，s = 1 时取极限 log(x)
+         */
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1.0d - exponent) * logX) * logX;
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1.0d - exponent);
+            if (t < -1.0d) {
+                // 舍入误差可能使 t 略小于 -1
+                t = -1.0d;
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        /**
+         * log1p(x) / x，x 接近 0 时用泰勒展开
+         */
+        private static double helper1(double x) {
+            if (Math.abs(x) > 1e-8d) {
+                return Math.log1p(x) / x;
+            }
+            return 1.0d - x * (0.5d - x * (1.0d / 3.0d - 0.25d * x));
+        }
+
+        /**
+         * expm1(x) / x，x 接近 0 时用泰勒展开
+         */
+        private static double helper2(double x) {
+            if (Math.abs(x) > 1e-8d) {
+                return Math.expm1(x) / x;
+            }
+            return 1.0d + x * 0.5d * (1.0d + x * (1.0d / 3.0d) * (1.0d + 0.25d * x));
+        }
+    }
+}
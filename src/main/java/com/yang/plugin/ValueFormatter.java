@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @ClassName ValueFormatter
+ * @Description 预编译的输出格式。支持 前缀%[-0][宽度][.精度]f后缀 与 %[-0][宽度]d，
+ * 直接写入调用方复用的 StringBuilder；其他格式回退到 {@link String#format(String, Object...)}，输出与其完全一致
+ * @Version 1.0
+ */
+abstract class ValueFormatter {
+
+    /**
+     * 与 java.util.Formatter 的格式说明符一致：%[索引$][标志][宽度][.精度]转换符
+     */
+    private static final Pattern SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    private static final int MAX_PRECISION = 15;
+
+    private static final double[] POW10 = new double[MAX_PRECISION + 1];
+    private static final long[] POW10_LONG = new long[MAX_PRECISION + 1];
+
+    /**
+     * 超过该值后 double 的小数部分精度不足以判断舍入方向
+     */
+    private static final double FAST_PATH_LIMIT = 0x1.0p50;
+
+    static {
+        long pow = 1;
+        for (int i = 0; i <= MAX_PRECISION; i++) {
+            POW10[i] = pow;
+            POW10_LONG[i] = pow;
+            pow *= 10;
+        }
+    }
+
+    protected final String pattern;
+
+    ValueFormatter(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * 编译输出格式，不支持的格式返回回退到 String.format 的实现
+     *
+     * @param pattern 输出格式
+     * @return 编译后的格式
+     */
+    static ValueFormatter compile(String pattern) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        if (symbols.getZeroDigit() != '0' || symbols.getMinusSign() != '-') {
+            return new FallbackFormatter(pattern);
+        }
+        StringBuilder prefix = new StringBuilder();
+        StringBuilder suffix = new StringBuilder();
+        StringBuilder literal = prefix;
+        char conversion = 0;
+        String flags = "";
+        int width = -1;
+        int precision = -1;
+        Matcher matcher = SPECIFIER.matcher(pattern);
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (!matcher.find(i) || matcher.start() != i || matcher.group(1) != null || matcher.group(5) != null) {
+                return new FallbackFormatter(pattern);
+            }
+            String specifierFlags = matcher.group(2) == null ? "" : matcher.group(2);
+            char specifier = matcher.group(6).charAt(0);
+            if (specifier == '%' || specifier == 'n') {
+                if (!specifierFlags.isEmpty() || matcher.group(3) != null || matcher.group(4) != null) {
+                    return new FallbackFormatter(pattern);
+                }
+                literal.append(specifier == '%' ? "%" : System.lineSeparator());
+            } else if ((specifier == 'f' || specifier == 'd') && conversion == 0) {
+                conversion = specifier;
+                flags = specifierFlags;
+                width = matcher.group(3) == null ? -1 : Integer.parseInt(matcher.group(3));
+                precision = matcher.group(4) == null ? -1 : Integer.parseInt(matcher.group(4).substring(1));
+                literal = suffix;
+            } else {
+                return new FallbackFormatter(pattern);
+            }
+            i = matcher.end();
+        }
+        if (conversion == 0) {
+            return new FixedFormatter(pattern, prefix.toString(), "", conversion, false, false, -1, 0, '.');
+        }
+        boolean leftJustify = flags.indexOf('-') >= 0;
+        boolean zeroPad = flags.indexOf('0') >= 0;
+        if (flags.replace("-", "").replace("0", "").length() > 0 || flags.length() > 1
+                || ((leftJustify || zeroPad) && width < 0)
+                || (conversion == 'd' && precision >= 0)
+                || precision > MAX_PRECISION) {
+            return new FallbackFormatter(pattern);
+        }
+        return new FixedFormatter(pattern, prefix.toString(), suffix.toString(), conversion, leftJustify, zeroPad, width,
+                precision < 0 ? 6 : precision, symbols.getDecimalSeparator());
+    }
+
+    /**
+     * @param value 随机数
+     * @param out   输出缓冲，追加到末尾
+     */
+    abstract void format(double value, StringBuilder out);
+
+    /**
+     * @param value 随机数
+     * @param out   输出缓冲，追加到末尾
+     */
+    abstract void format(long value, StringBuilder out);
+
+    final void fallback(Object value, StringBuilder out) {
+        out.append(String.format(pattern, value));
+    }
+
+    private static final class FallbackFormatter extends ValueFormatter {
+
+        FallbackFormatter(String pattern) {
+            super(pattern);
+        }
+
+        @Override
+        void format(double value, StringBuilder out) {
+            fallback(value, out);
+        }
+
+        @Override
+        void format(long value, StringBuilder out) {
+            fallback(value, out);
+        }
+    }
+
+    private static final class FixedFormatter extends ValueFormatter {
+
+        private final String prefix;
+        private final String suffix;
+        private final char conversion;
+        private final boolean leftJustify;
+        private final boolean zeroPad;
+        private final int width;
+        private final int precision;
+        private final char decimalSeparator;
+
+        FixedFormatter(String pattern, String prefix, String suffix, char conversion, boolean leftJustify,
+                       boolean zeroPad, int width, int precision, char decimalSeparator) {
+            super(pattern);
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.conversion = conversion;
+            this.leftJustify = leftJustify;
+            this.zeroPad = zeroPad;
+            this.width = width;
+            this.precision = precision;
+            this.decimalSeparator = decimalSeparator;
+        }
+
+        /**
+         * String.format 先取 double 的最短十进制表示再四舍五入（HALF_UP）。
+         * 乘以 10^精度 后只要小数部分离 0.5 足够远，两种舍入结果必然相同；
+         * 离 0.5 过近、数值过大或非有限值时交给 String.format
+         */
+        @Override
+        void format(double value, StringBuilder out) {
+            if (conversion == 0) {
+                out.append(prefix);
+                return;
+            }
+            if (conversion != 'f') {
+                fallback(value, out);
+                return;
+            }
+            double scaled = Math.abs(value) * POW10[precision];
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (!(scaled < FAST_PATH_LIMIT) || Math.abs(fraction - 0.5d) <= 4 * Math.ulp(scaled)) {
+                fallback(value, out);
+                return;
+            }
+            long rounded = (long) floor + (fraction > 0.5d ? 1 : 0);
+            long integer = rounded / POW10_LONG[precision];
+            long decimal = rounded - integer * POW10_LONG[precision];
+            boolean negative = Double.doubleToRawLongBits(value) < 0;
+
+            out.append(prefix);
+            int start = out.length();
+            if (negative) {
+                out.append('-');
+            }
+            out.append(integer);
+            if (precision > 0) {
+                out.append(decimalSeparator);
+                long pow = POW10_LONG[precision - 1];
+                while (pow > 1 && decimal < pow) {
+                    out.append('0');
+                    pow /= 10;
+                }
+                out.append(decimal);
+            }
+            pad(out, start, negative);
+            out.append(suffix);
+        }
+
+        @Override
+        void format(long value, StringBuilder out) {
+            if (conversion == 0) {
+                out.append(prefix);
+                return;
+            }
+            if (conversion != 'd') {
+                fallback(value, out);
+                return;
+            }
+            out.append(prefix);
+            int start = out.length();
+            out.append(value);
+            pad(out, start, value < 0);
+            out.append(suffix);
+        }
+
+        private void pad(StringBuilder out, int start, boolean negative) {
+            int padding = width - (out.length() - start);
+            if (padding <= 0) {
+                return;
+            }
+            if (leftJustify) {
+                for (int i = 0; i < padding; i++) {
+                    out.append(' ');
+                }
+            } else if (zeroPad) {
+                int offset = negative ? start + 1 : start;
+                for (int i = 0; i < padding; i++) {
+                    out.insert(offset, '0');
+                }
+            } else {
+                for (int i = 0; i < padding; i++) {
+                    out.insert(start, ' ');
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName ValueGenerator
+ * @Description 一组一起生成的变量在每个线程中的生成状态：采样器、复用的输出缓冲与可选的预生成环形缓冲。
+ * 普通变量一组只有一个变量；联合行的各变量共用一次区间选择，在选出的行内各自取值
+ * @Version 1.0
+ */
+final class ValueGenerator {
+
+    private final VariableSpec[] specs;
+    private final BucketSampler sampler;
+    private final RandomEngine random;
+    /**
+     * 输出缓冲，同一用户的各组共用
+     */
+    private final StringBuilder buffer;
+    /**
+     * 整组共用的各区间统计计数器，未启用统计时为 null
+     */
+    private final LongAdder[] counters;
+    /**
+     * 按变量取各区间的直方图，未启用记录时为 null
+     */
+    private final ValueHistogram[][] histograms;
+    /**
+     * 直方图所属的报告，线程结束时合并，未启用记录时为 null
+     */
+    private final DistributionReport report;
+    /**
+     * 按变量取各区间的不重复取值游标，未启用去重时为 null
+     */
+    private final UniqueRange.Cursor[][] cursors;
+    /**
+     * 最近一次生成的一组取值，每次生成时覆盖
+     */
+    private final String[] values;
+    /**
+     * 延迟生成时本次迭代是否还没有生成
+     */
+    private boolean stale = true;
+
+    /**
+     * 预生成的环形缓冲，每组取值连续存放，未启用时为 null
+     */
+    private final String[] ring;
+    private final int[] pendingBuckets;
+    private final int refillWatermark;
+    private int head;
+    private int size;
+
+    /**
+     * @param specs           一起生成的各变量的编译结果，第一个变量的采样器为整组选择区间
+     * @param random          当前线程的随机数引擎
+     * @param buffer          当前用户复用的输出缓冲
+     * @param bufferSize      预生成缓冲大小（组数），0 表示每次迭代现场生成
+     * @param refillWatermark 缓冲剩余不超过该数量时补满
+     * @param counters        整组共用的各区间统计计数器，为 null 时不统计
+     * @param histograms      按变量取各区间的直方图，为 null 时不记录
+     * @param report          直方图所属的报告，为 null 时不记录
+     */
+    ValueGenerator(VariableSpec[] specs, RandomEngine random, StringBuilder buffer, int bufferSize, int refillWatermark,
+                   LongAdder[] counters, ValueHistogram[][] histograms, DistributionReport report) {
+        this.specs = specs;
+        this.sampler = specs[0].newSampler(random);
+        this.random = random;
+        this.buffer = buffer;
+        this.counters = counters;
+        this.histograms = histograms;
+        this.report = report;
+        this.cursors = newCursors(specs, random);
+        this.values = new String[specs.length];
+        this.refillWatermark = refillWatermark;
+        if (bufferSize > 0) {
+            ring = new String[bufferSize * specs.length];
+            pendingBuckets = new int[bufferSize];
+            refill();
+        } else {
+            ring = null;
+            pendingBuckets = null;
+        }
+    }
+
+    private static UniqueRange.Cursor[][] newCursors(VariableSpec[] specs, RandomEngine random) {
+        UniqueRange.Cursor[][] cursors = null;
+        for (int i = 0; i < specs.length; i++) {
+            UniqueRange.Cursor[] variable = specs[i].newCursors(random);
+            if (variable != null) {
+                if (cursors == null) {
+                    cursors = new UniqueRange.Cursor[specs.length][];
+                }
+                cursors[i] = variable;
+            }
+        }
+        return cursors;
+    }
+
+    /**
+     * @return 一起生成的变量个数
+     */
+    int size() {
+        return specs.length;
+    }
+
+    /**
+     * 产生下一组格式化后的随机数
+     *
+     * @return 按变量排列的取值，数组在下次调用时被覆盖；没有配置行时返回 null
+     */
+    String[] next() {
+        if (ring == null) {
+            int bucket = select();
+            if (bucket < 0) {
+                return null;
+            }
+            render(bucket, values, 0);
+            return values;
+        }
+        if (size <= refillWatermark) {
+            refill();
+            if (size == 0) {
+                return null;
+            }
+        }
+        int offset = head * values.length;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ring[offset + i];
+            ring[offset + i] = null;
+        }
+        if (++head == pendingBuckets.length) {
+            head = 0;
+        }
+        size--;
+        return values;
+    }
+
+    /**
+     * 延迟生成时在新的迭代开始时调用，丢弃上次迭代的取值
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * 延迟生成时读取本次迭代的取值，同一次迭代中第一次读取任一变量时整组生成
+     *
+     * @param member 变量在组内的下标
+     * @return 取值，没有配置行时返回 null
+     */
+    String current(int member) {
+        if (stale) {
+            stale = false;
+            if (next() == null) {
+                Arrays.fill(values, null);
+            }
+        }
+        return values[member];
+    }
+
+    /**
+     * 选出区间并计数，联合行整行只计数一次
+     */
+    private int select() {
+        int bucket = sampler.nextBucket();
+        if (bucket >= 0 && counters != null) {
+            counters[bucket].increment();
+        }
+        return bucket;
+    }
+
+    private void render(int bucket, String[] target, int offset) {
+        for (int i = 0; i < specs.length; i++) {
+            target[offset + i] = specs[i].render(bucket, random, buffer,
+                    histograms == null ? null : histograms[i], cursors == null ? null : cursors[i]);
+        }
+    }
+
+    /**
+     * 批量补满缓冲：先选出全部区间，再依次取值并格式化，两个阶段都是紧凑的循环。
+     * 统计在选出区间时计数，与实际取出的数量相差不超过缓冲大小
+     */
+    private void refill() {
+        int count = pendingBuckets.length - size;
+        for (int i = 0; i < count; i++) {
+            int bucket = select();
+            if (bucket < 0) {
+                return;
+            }
+            pendingBuckets[i] = bucket;
+        }
+        int tail = head + size;
+        for (int i = 0; i < count; i++) {
+            if (tail >= pendingBuckets.length) {
+                tail -= pendingBuckets.length;
+            }
+            render(pendingBuckets[i], ring, tail * values.length);
+            tail++;
+        }
+        size += count;
+    }
+
+    /**
+     * 线程结束时调用
+     */
+    void release() {
+        sampler.release();
+        if (report != null) {
+            for (ValueHistogram[] variable : histograms) {
+                report.merge(variable);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName ValueHistogram
+ * @Description 一个配置行在一个线程中产生的取值的直方图，内存固定，与运行时长无关。
+ * 与 HDR Histogram 相同按对数分段：每个 2 的幂区间再线性分成 2^{@link #SUB_BITS} 段，相对误差不超过 1/32；
+ * 取值区间覆盖该行绝对值最大值以下 {@link #MAX_BINADES} 个 2 的幂，更小的绝对值计入 0 所在的桶。
+ * 每个 2 的幂区间的计数在第一次落入时才分配，区间较窄的行只占用实际用到的几段。
+ * 精确记录最小值、最大值与总和。枚举值行只计数
+ * @Version 1.0
+ */
+final class ValueHistogram {
+
+    static final int SUB_BITS = 5;
+
+    static final int MAX_BINADES = 20;
+
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private static final int SUB_MASK = SUB_COUNT - 1;
+
+    private final boolean numeric;
+    private final boolean integer;
+    /**
+     * 最小的桶对应的 double 高位（指数加尾数高 {@link #SUB_BITS} 位）
+     */
+    private final int lowKey;
+    /**
+     * 单个符号方向上的桶数
+     */
+    private final int width;
+    /**
+     * 正数一侧按 2 的幂区间分段的计数，未落入过的段为 null；只计数时整个为 null
+     */
+    private final long[][] positive;
+    /**
+     * 负数一侧按绝对值分段的计数，下界不小于 0 时为 null
+     */
+    private final long[][] negative;
+    /**
+     * 0 所在桶的计数
+     */
+    private long zero;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+
+    /**
+     * @param min     配置行的下界
+     * @param max     配置行的上界
+     * @param integer 是否整数行，整数行不需要小于 1 的桶
+     * @param numeric 是否记录取值，为 false 时只计数
+     */
+    ValueHistogram(double min, double max, boolean integer, boolean numeric) {
+        this.numeric = numeric;
+        this.integer = integer;
+        if (!numeric) {
+            this.lowKey = 0;
+            this.width = 0;
+            this.positive = null;
+            this.negative = null;
+            return;
+        }
+        double magnitude = Math.max(Math.abs(min), Math.abs(max));
+        int highExponent = magnitude >= Double.MIN_NORMAL && magnitude <= Double.MAX_VALUE
+                ? Math.getExponent(magnitude) : 0;
+        int lowExponent = Math.max(highExponent - MAX_BINADES + 1, Double.MIN_EXPONENT);
+        if (integer) {
+            lowExponent = Math.max(lowExponent, 0);
+            highExponent = Math.max(highExponent, lowExponent);
+        }
+        int binades = highExponent - lowExponent + 1;
+        this.lowKey = (lowExponent - Double.MIN_EXPONENT + 1) << SUB_BITS;
+        this.width = binades << SUB_BITS;
+        this.positive = new long[binades][];
+        this.negative = min < 0 ? new long[binades][] : null;
+    }
+
+    /**
+     * @param value 产生的取值
+     */
+    void record(double value) {
+        count++;
+        if (positive == null) {
+            return;
+        }
+        int key = (int) (Double.doubleToRawLongBits(Math.abs(value)) >>> (52 - SUB_BITS)) - lowKey;
+        if (key < 0 || (value < 0 && negative == null)) {
+            zero++;
+        } else {
+            if (key >= width) {
+                key = width - 1;
+            }
+            long[][] side = value < 0 ? negative : positive;
+            long[] counts = side[key >>> SUB_BITS];
+            if (counts == null) {
+                counts = new long[SUB_COUNT];
+                side[key >>> SUB_BITS] = counts;
+            }
+            counts[key & SUB_MASK]++;
+        }
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * 桶的中点
+     *
+     * @param key      绝对值所在桶的下标
+     * @param negative 是否负数一侧
+     */
+    private double midpoint(int key, boolean negative) {
+        long bits = (long) (key + lowKey) << (52 - SUB_BITS);
+        double lower = Double.longBitsToDouble(bits);
+        double upper = Double.longBitsToDouble(bits + (1L << (52 - SUB_BITS)));
+        double middle = lower + (upper - lower) / 2;
+        return negative ? -middle : middle;
+    }
+
+    /**
+     * @param other 结构相同的直方图
+     */
+    void add(ValueHistogram other) {
+        count += other.count;
+        if (positive == null) {
+            return;
+        }
+        add(positive, other.positive);
+        if (negative != null) {
+            add(negative, other.negative);
+        }
+        zero += other.zero;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    private static void add(long[][] target, long[][] source) {
+        for (int i = 0; i < target.length; i++) {
+            if (source[i] == null) {
+                continue;
+            }
+            if (target[i] == null) {
+                target[i] = source[i].clone();
+                continue;
+            }
+            for (int j = 0; j < SUB_COUNT; j++) {
+                target[i][j] += source[i][j];
+            }
+        }
+    }
+
+    /**
+     * @param quantile 0 到 1 之间的分位
+     * @return 对应的取值，落在桶中点并限制在实际的最小值和最大值之间；没有取值时返回 NaN
+     */
+    double percentile(double quantile) {
+        if (positive == null || count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        // 从最小的负数到最大的正数依次累加
+        if (negative != null) {
+            for (int key = width - 1; key >= 0; key--) {
+                long[] counts = negative[key >>> SUB_BITS];
+                if (counts == null) {
+                    key -= key & SUB_MASK;
+                    continue;
+                }
+                seen += counts[key & SUB_MASK];
+                if (seen >= rank) {
+                    return clamp(midpoint(key, true));
+                }
+            }
+        }
+        seen += zero;
+        if (seen >= rank) {
+            return clamp(0);
+        }
+        for (int key = 0; key < width; key++) {
+            long[] counts = positive[key >>> SUB_BITS];
+            if (counts == null) {
+                key |= SUB_MASK;
+                continue;
+            }
+            seen += counts[key & SUB_MASK];
+            if (seen >= rank) {
+                return clamp(midpoint(key, false));
+            }
+        }
+        return max;
+    }
+
+    private double clamp(double value) {
+        double clamped = Math.min(max, Math.max(min, value));
+        return integer ? Math.rint(clamped) : clamped;
+    }
+
+    boolean numeric() {
+        return numeric;
+    }
+
+    boolean integer() {
+        return integer;
+    }
+
+    long count() {
+        return count;
+    }
+
+    double min() {
+        return count == 0 || positive == null ? Double.NaN : min;
+    }
+
+    double max() {
+        return count == 0 || positive == null ? Double.NaN : max;
+    }
+
+    double mean() {
+        return count == 0 || positive == null ? Double.NaN : sum / count;
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @ClassName VariableSpec
+ * @Description 一个输出变量的编译结果：区间表、各区间的格式及共享的选择结构，只读，所有线程共享
+ * @Version 1.0
+ */
+final class VariableSpec {
+
+    private static final Logger log = LoggerFactory.getLogger(VariableSpec.class);
+
+    /**
+     * 整数区间取值个数不超过该值时预先格式化全部取值
+     */
+    static final int ENCODE_LIMIT = 1024;
+
+    final String name;
+    final BucketTable table;
+    /**
+     * 按区间下标取格式
+     */
+    private final ValueFormatter[] formatters;
+    /**
+     * 文件区间中整数行使用的格式，行内格式为空时为 %d；其他区间与 {@link #formatters} 相同
+     */
+    private final ValueFormatter[] integerFormatters;
+    /**
+     * 文件区间中枚举值行使用的行内格式，为空时原样输出
+     */
+    private final String[] valueFormats;
+    /**
+     * 按区间下标取预先格式化好的取值，只有枚举值和取值个数较少的整数区间才有
+     */
+    private final String[][] encoded;
+    /**
+     * 按区间下标取不重复取值的整数区间，未启用去重或不是整数区间时为 null
+     */
+    private final UniqueRange[] unique;
+    /**
+     * 当前生效的占比，占比计划会替换它
+     */
+    final BucketWeights weights;
+    private final boolean probabilistic;
+    final TicketDispenser dispenser;
+    /**
+     * 从该变量开始一起生成的变量个数：普通变量为 1，联合行的第一个变量为变量个数，其余变量为 0
+     */
+    final int members;
+
+    /**
+     * @param leader 联合行的第一个变量，其余变量与它共用占比和全局计数；普通变量或第一个变量本身为 null
+     */
+    private VariableSpec(String name, BucketTable table, ValueFormatter[] formatters,
+                         ValueFormatter[] integerFormatters, String[] valueFormats, String[][] encoded,
+                         UniqueRange[] unique, boolean probabilistic, TicketDispenser dispenser, int members, VariableSpec leader) {
+        this.name = name;
+        this.table = table;
+        this.members = members;
+        this.formatters = formatters;
+        this.integerFormatters = integerFormatters;
+        this.valueFormats = valueFormats;
+        this.encoded = encoded;
+        this.unique = unique;
+        this.probabilistic = probabilistic;
+        if (leader != null) {
+            this.dispenser = leader.dispenser;
+            this.weights = leader.weights;
+            return;
+        }
+        this.dispenser = dispenser;
+        double[] ratios = new double[table.size()];
+        for (int bucket = 0; bucket < ratios.length; bucket++) {
+            ratios[bucket] = table.ratio(bucket);
+        }
+        this.weights = new BucketWeights(ratios, probabilistic, dispenser != null);
+    }
+
+    /**
+     * 按变量名对配置行分组，变量名为空的行归入元件的变量，分组按首次出现的顺序排列。
+     * 变量列用逗号分隔多个变量名的行为联合行，变量列相同的联合行组成一张共用占比的区间表，
+     * 每个变量一个编译结果，按变量列中的顺序相邻排列
+     *
+     * @param element   随机数元件
+     * @param strategy  区间选择策略
+     * @param global    是否全局占比
+     * @param tolerance 全局占比容差
+     * @param uniqueMode 整数区间的去重方式
+     * @param uniqueKey  全局不重复时置换的密钥
+     * @param partition  当前引擎的划分
+     * @param problems   收集编译时发现的问题
+     * @return 各变量的编译结果
+     */
+    static VariableSpec[] compile(RandomParameterElement element, SamplingStrategy strategy, boolean global,
+                                  double tolerance, UniqueMode uniqueMode, long uniqueKey,
+                                  EnginePartition partition, CompileProblems problems) {
+        String defaultName = element.getVariableName();
+        String defaultFormat = element.getOutputFormat();
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        int size = element.size();
+        for (int i = 0; i < size; i++) {
+            String name = element.get(i).getHvariable().trim();
+            groups.computeIfAbsent(name.isEmpty() ? defaultName : normalize(name), k -> new ArrayList<>()).add(i);
+        }
+        Map<String, ValueFormatter> formatterCache = new HashMap<>();
+        List<VariableSpec> specs = new ArrayList<>();
+        Set<String> written = new HashSet<>();
+        for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+            int[] rows = group.getValue().stream().mapToInt(Integer::intValue).toArray();
+            String[] names = group.getKey().split(",");
+            BucketTable[] tables = BucketTable.compile(element, rows, names.length, problems);
+            if (tables[0].size() == 0) {
+                problems.error(log, "Variable {} of {} has no valid rows and will be empty", group.getKey(),
+                        element.getName());
+            }
+            VariableSpec leader = null;
+            for (int member = 0; member < names.length; member++) {
+                if (!written.add(names[member])) {
+                    problems.warn(log, "Variable {} is generated by more than one group of rows in {}, the last one wins",
+                            names[member], element.getName());
+                }
+                VariableSpec spec = compile(element, names[member], tables[member], member, names.length,
+                        leader, formatterCache, defaultFormat, strategy, global, tolerance, uniqueMode, uniqueKey,
+                        partition, problems);
+                if (leader == null) {
+                    leader = spec;
+                }
+                specs.add(spec);
+            }
+        }
+        return specs.toArray(new VariableSpec[0]);
+    }
+
+    /**
+     * 去掉变量列中各变量名两侧的空白
+     */
+    private static String normalize(String names) {
+        String[] parts = names.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return String.join(",", parts);
+    }
+
+    /**
+     * 编译一个变量的格式和预先格式化的取值
+     */
+    private static VariableSpec compile(RandomParameterElement element, String name, BucketTable table, int member,
+                                        int members, VariableSpec leader, Map<String, ValueFormatter> formatterCache,
+                                        String defaultFormat, SamplingStrategy strategy, boolean global,
+                                        double tolerance, UniqueMode uniqueMode, long uniqueKey,
+                                        EnginePartition partition, CompileProblems problems) {
+        ValueFormatter[] formatters = new ValueFormatter[table.size()];
+        ValueFormatter[] integerFormatters = new ValueFormatter[table.size()];
+        String[] valueFormats = new String[table.size()];
+        String[][] encoded = new String[table.size()][];
+        UniqueRange[] unique = uniqueMode == UniqueMode.NONE ? null : new UniqueRange[table.size()];
+        for (int bucket = 0; bucket < formatters.length; bucket++) {
+            String rowFormat = element.get(table.row(bucket)).member(member, members).getHformat();
+            // 函数形式没有变量名时省略，避免日志中出现连续的空格
+            String description = element.getName() + (name.isEmpty() ? "" : " " + name)
+                    + " row " + (table.row(bucket) + 1);
+            BucketKind kind = table.kind(bucket);
+            String format = rowFormat;
+            String valueFormat = rowFormat;
+            if (format.isEmpty()) {
+                // 整数默认原样输出，不套用元件上针对浮点数的格式
+                format = kind == BucketKind.DOUBLE || kind == BucketKind.FILE ? defaultFormat : "%d";
+            }
+            if (kind == BucketKind.VALUE) {
+                if (!rowFormat.isEmpty() && !BucketTable.validFormat(rowFormat, "")) {
+                    problems.error(log, "Invalid format '{}' of {}, values are written as is", rowFormat,
+                            description);
+                    valueFormat = "";
+                }
+            } else {
+                format = checkFormat(format, integer(table, bucket), description, problems);
+            }
+            formatters[bucket] = formatterCache.computeIfAbsent(format, ValueFormatter::compile);
+            if (kind == BucketKind.FILE) {
+                if (table.file(bucket).hasValues() && !rowFormat.isEmpty()
+                        && !BucketTable.validFormat(rowFormat, "")) {
+                    problems.error(log, "Invalid format '{}' of the values in {}, values are written as is",
+                            rowFormat, description);
+                    valueFormat = "";
+                }
+                integerFormatters[bucket] = rowFormat.isEmpty()
+                        ? formatterCache.computeIfAbsent("%d", ValueFormatter::compile) : formatters[bucket];
+            } else {
+                integerFormatters[bucket] = formatters[bucket];
+            }
+            valueFormats[bucket] = valueFormat;
+            encoded[bucket] = encode(table, bucket, valueFormat, formatters[bucket]);
+            if (unique != null) {
+                unique[bucket] = unique(description, table, bucket, uniqueMode, uniqueKey, partition, problems);
+            }
+        }
+        return new VariableSpec(name, table, formatters, integerFormatters, valueFormats, encoded, unique,
+                strategy == SamplingStrategy.PROBABILISTIC,
+                // 按概率抽样本身就是全局无偏的，全局模式只作用于按占比补齐
+                strategy == SamplingStrategy.DEFICIT && global ? new TicketDispenser(tolerance, partition) : null,
+                member == 0 ? members : 0, leader);
+    }
+
+    /**
+     * 用样例值试用格式，与区间类型不符（如整数区间使用 %.2f）时记录问题并换用该类型的默认格式
+     */
+    private static String checkFormat(String format, boolean integer, String description,
+                                      CompileProblems problems) {
+        if (BucketTable.validFormat(format, integer ? (Object) 1L : (Object) 1.0d)) {
+            return format;
+        }
+        String fallback = integer ? "%d" : "%.2f";
+        problems.error(log, "Invalid format '{}' for {} values of {}, using {}", format,
+                integer ? "integer" : "decimal", description, fallback);
+        return fallback;
+    }
+
+    /**
+     * 文件区间只有数值行全部为整数时按整数检查格式，否则格式作用于其中的浮点数行
+     */
+    private static boolean integer(BucketTable table, int bucket) {
+        switch (table.kind(bucket)) {
+            case INT:
+            case LONG:
+                return true;
+            case FILE:
+                return table.file(bucket).allInteger();
+            case DOUBLE:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 整数区间按置换不重复取值，行内的非均匀分布不再生效；取值个数超出 long 范围的区间不支持，
+     * 分布式测试中取值个数少于引擎数的区间也不支持
+     */
+    private static UniqueRange unique(String description, BucketTable table, int bucket, UniqueMode uniqueMode,
+                                      long uniqueKey, EnginePartition partition, CompileProblems problems) {
+        BucketKind kind = table.kind(bucket);
+        if (kind != BucketKind.INT && kind != BucketKind.LONG) {
+            return null;
+        }
+        if (table.span(bucket) <= 0) {
+            problems.warn(log, "Range of {} is too large for unique values, values may repeat", description);
+            return null;
+        }
+        boolean global = uniqueMode == UniqueMode.GLOBAL;
+        if (global && partition.length(table.span(bucket)) == 0) {
+            problems.warn(log, "Range of {} has fewer values than engines, values may repeat", description);
+            return null;
+        }
+        if (table.distribution(bucket) != null) {
+            problems.warn(log, "Distribution of {} is ignored because values are unique", description);
+        }
+        return new UniqueRange(description, table.span(bucket), global,
+                RandomEngine.mix64(uniqueKey + (table.row(bucket) + 1) * RandomEngine.GOLDEN_GAMMA), partition);
+    }
+
+    /**
+     * 枚举值按行内格式（为空时原样）格式化一次；整数区间取值个数较少时预先格式化全部取值
+     */
+    private static String[] encode(BucketTable table, int bucket, String rowFormat, ValueFormatter formatter) {
+        switch (table.kind(bucket)) {
+            case VALUE:
+                String[] values = table.values(bucket).clone();
+                if (!rowFormat.isEmpty()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = String.format(rowFormat, values[i]);
+                    }
+                }
+                return values;
+            case INT:
+            case LONG:
+                long span = table.span(bucket);
+                if (span <= 0 || span > ENCODE_LIMIT) {
+                    return null;
+                }
+                String[] numbers = new String[(int) span];
+                StringBuilder buffer = new StringBuilder();
+                for (int i = 0; i < numbers.length; i++) {
+                    buffer.setLength(0);
+                    formatter.format(table.longMin(bucket) + i, buffer);
+                    numbers[i] = buffer.toString();
+                }
+                return numbers;
+            case FILE:
+            case DOUBLE:
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 在选出的区间内取值并格式化，预先格式化过的取值直接返回缓存的字符串
+     *
+     * @param bucket 区间下标
+     * @param random 当前线程的随机数引擎
+     * @param buffer     当前线程复用的输出缓冲
+     * @param histograms 当前线程各区间的直方图，未启用记录时为 null
+     * @param cursors    当前线程各区间的不重复取值游标，由 {@link #newCursors} 创建，未启用去重时为 null
+     * @return 格式化后的取值
+     */
+    String render(int bucket, RandomEngine random, StringBuilder buffer, ValueHistogram[] histograms,
+                  UniqueRange.Cursor[] cursors) {
+        BucketFile file = table.file(bucket);
+        if (file != null) {
+            return renderFile(bucket, file, random, buffer, histograms);
+        }
+        String[] cached = encoded[bucket];
+        if (cursors != null && cursors[bucket] != null) {
+            long offset = cursors[bucket].next();
+            if (histograms != null) {
+                histograms[bucket].record(table.longMin(bucket) + offset);
+            }
+            if (cached != null) {
+                return cached[(int) offset];
+            }
+            buffer.setLength(0);
+            formatters[bucket].format(table.longMin(bucket) + offset, buffer);
+            return buffer.toString();
+        }
+        ValueDistribution distribution = table.distribution(bucket);
+        if (cached != null) {
+            int index;
+            if (distribution != null) {
+                // 缓存按取值相对下界的偏移排列，枚举值的下界为 0
+                index = (int) (distribution.sampleLong(random) - table.longMin(bucket));
+            } else {
+                index = cached.length == 1 ? 0 : random.nextInt(cached.length);
+            }
+            if (histograms != null) {
+                histograms[bucket].record(table.longMin(bucket) + index);
+            }
+            return cached[index];
+        }
+        buffer.setLength(0);
+        if (table.kind(bucket) == BucketKind.DOUBLE) {
+            double value = distribution != null ? distribution.sample(random)
+                    : random.nextDouble(table.min(bucket), table.max(bucket));
+            if (histograms != null) {
+                histograms[bucket].record(value);
+            }
+            formatters[bucket].format(value, buffer);
+        } else {
+            long value = nextLong(bucket, random);
+            if (histograms != null) {
+                histograms[bucket].record(value);
+            }
+            formatters[bucket].format(value, buffer);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * 按文件中的占比选出一行，再在该行内均匀取值
+     */
+    private String renderFile(int bucket, BucketFile file, RandomEngine random, StringBuilder buffer,
+                              ValueHistogram[] histograms) {
+        int index = file.next(random);
+        buffer.setLength(0);
+        switch (file.kind(index)) {
+            case VALUE:
+                String value = file.value(index);
+                if (histograms != null) {
+                    histograms[bucket].record(0);
+                }
+                return valueFormats[bucket].isEmpty() ? value : String.format(valueFormats[bucket], value);
+            case INT:
+            case LONG:
+                long low = file.longMin(index);
+                long span = file.longMax(index) - low + 1;
+                long number;
+                if (span > 0) {
+                    number = low + random.nextLong(span);
+                } else {
+                    do {
+                        number = random.nextLong();
+                    } while (number < low || number > file.longMax(index));
+                }
+                if (histograms != null) {
+                    histograms[bucket].record(number);
+                }
+                integerFormatters[bucket].format(number, buffer);
+                break;
+            case DOUBLE:
+            default:
+                double real = random.nextDouble(file.doubleMin(index), file.doubleMax(index));
+                if (histograms != null) {
+                    histograms[bucket].record(real);
+                }
+                formatters[bucket].format(real, buffer);
+                break;
+        }
+        return buffer.toString();
+    }
+
+    private long nextLong(int bucket, RandomEngine random) {
+        ValueDistribution distribution = table.distribution(bucket);
+        if (distribution != null) {
+            return distribution.sampleLong(random);
+        }
+        long span = table.span(bucket);
+        if (span > 0) {
+            return table.longMin(bucket) + random.nextLong(span);
+        }
+        // 取值个数超过 long 范围时拒绝采样，接受概率不低于 1/2
+        long low = table.longMin(bucket);
+        long high = table.longMax(bucket);
+        long value;
+        do {
+            value = random.nextLong();
+        } while (value < low || value > high);
+        return value;
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 当前线程独占的各区间不重复取值游标，未启用去重时返回 null
+     */
+    UniqueRange.Cursor[] newCursors(RandomEngine random) {
+        if (unique == null) {
+            return null;
+        }
+        UniqueRange.Cursor[] cursors = new UniqueRange.Cursor[unique.length];
+        for (int bucket = 0; bucket < unique.length; bucket++) {
+            if (unique[bucket] != null) {
+                cursors[bucket] = unique[bucket].newCursor(random);
+            }
+        }
+        return cursors;
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 当前线程独占的采样器
+     */
+    BucketSampler newSampler(RandomEngine random) {
+        if (probabilistic) {
+            return new AliasBucketSampler(table, weights, random);
+        } else if (dispenser != null) {
+            return new GlobalTicketSampler(table, weights, dispenser, random);
+        }
+        return new DeficitBucketSampler(table, weights, random);
+    }
+}
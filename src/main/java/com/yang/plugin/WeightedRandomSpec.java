@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+/**
+ * @ClassName WeightedRandomSpec
+ * @Description 函数形式使用的编译结果，与 {@link RandomParameterElement} 共用区间表、采样器和格式化，
+ * 每个用户各自持有一份计数状态，保存在用户变量中
+ * @Version 1.0
+ */
+public final class WeightedRandomSpec {
+
+    static final String FUNCTION_NAME = "__weightedRandom";
+
+    private final RandomConfig config;
+
+    private WeightedRandomSpec(RandomConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 解析函数参数：形如 极小值:极大值:占比[:类型] 的参数为配置行，之后第一个参数为格式，第二个参数为保存结果的变量名
+     *
+     * @param args 已求值的参数
+     * @return 编译结果
+     * @throws IllegalArgumentException 没有配置行
+     */
+    public static WeightedRandomSpec compile(String[] args) {
+        RandomParameterElement element = new RandomParameterElement();
+        element.setName(FUNCTION_NAME);
+        element.setOutputFormat("%.2f");
+        int rows = 0;
+        boolean formatSeen = false;
+        for (String arg : args) {
+            String value = arg.trim();
+            if (!formatSeen && isRow(value)) {
+                String[] parts = value.split(":", -1);
+                RandomParameter row = new RandomParameter(parts[0].trim(), parts[1].trim(), parts[2].trim());
+                if (parts.length > 3) {
+                    row.setHtype(parts[3].trim());
+                }
+                element.getHeaders().addItem(row);
+                rows++;
+            } else if (!formatSeen) {
+                formatSeen = true;
+                if (!value.isEmpty()) {
+                    element.setOutputFormat(value);
+                }
+            }
+        }
+        if (rows == 0) {
+            throw new IllegalArgumentException("expected at least one min:max:ratio argument");
+        }
+        return new WeightedRandomSpec(RandomConfig.compile(element));
+    }
+
+    /**
+     * @param args 已求值的参数
+     * @return 保存结果的变量名，没有时返回 null
+     */
+    public static String variableName(String[] args) {
+        int index = 0;
+        while (index < args.length && isRow(args[index].trim())) {
+            index++;
+        }
+        // 跳过格式
+        index++;
+        if (index < args.length && !args[index].trim().isEmpty()) {
+            return args[index].trim();
+        }
+        return null;
+    }
+
+    private static boolean isRow(String value) {
+        String[] parts = value.split(":", -1);
+        if (parts.length != 3 && parts.length != 4) {
+            return false;
+        }
+        try {
+            Double.parseDouble(parts[2].trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param stateKey 调用位置保存状态的键，参数变化重新编译后新状态替换旧状态，用户变量中不会堆积
+     * @return 当前用户的下一个随机数，没有有效的配置行时返回空字符串
+     */
+    public String next(String stateKey) {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        // 测试线程之外求值时没有用户变量，只能每次使用新的状态
+        RandomState state = variables == null ? config.newState() : config.state(variables, stateKey);
+        String value = state.nextValue(0);
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName Xoshiro256PlusPlusEngine
+ * @Description xoshiro256++ 引擎（Blackman &amp; Vigna），种子经 SplitMix64 展开为 256 位状态
+ * @Version 1.0
+ */
+final class Xoshiro256PlusPlusEngine extends RandomEngine {
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    Xoshiro256PlusPlusEngine(long seed) {
+        long x = seed;
+        s0 = mix64(x += GOLDEN_GAMMA);
+        s1 = mix64(x += GOLDEN_GAMMA);
+        s2 = mix64(x += GOLDEN_GAMMA);
+        s3 = mix64(x + GOLDEN_GAMMA);
+    }
+
+    @Override
+    long nextLong() {
+        long result = Long.rotateLeft(s0 + s3, 23) + s0;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName Ziggurat
+ * @Description Marsaglia &amp; Tsang 的 ziggurat 算法：标准正态分布 128 层、标准指数分布 256 层。
+ * 每次取一个 64 位随机数，低位选层、高 32 位取值，绝大多数情况下只需一次乘法和一次比较
+ * @Version 1.0
+ */
+final class Ziggurat {
+
+    private static final double NORMAL_R = 3.442619855899d;
+    private static final double NORMAL_V = 9.91256303526217e-3d;
+    private static final double EXPONENTIAL_R = 7.697117470131487d;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3d;
+
+    private static final long[] KN = new long[128];
+    private static final double[] WN = new double[128];
+    private static final double[] FN = new double[128];
+    private static final long[] KE = new long[256];
+    private static final double[] WE = new double[256];
+    private static final double[] FE = new double[256];
+
+    static {
+        double m1 = 2147483648.0d;
+        double dn = NORMAL_R;
+        double tn = dn;
+        double q = NORMAL_V / Math.exp(-0.5d * dn * dn);
+        KN[0] = (long) ((dn / q) * m1);
+        KN[1] = 0;
+        WN[0] = q / m1;
+        WN[127] = dn / m1;
+        FN[0] = 1.0d;
+        FN[127] = Math.exp(-0.5d * dn * dn);
+        for (int i = 126; i >= 1; i--) {
+            dn = Math.sqrt(-2.0d * Math.log(NORMAL_V / dn + Math.exp(-0.5d * dn * dn)));
+            KN[i + 1] = (long) ((dn / tn) * m1);
+            tn = dn;
+            FN[i] = Math.exp(-0.5d * dn * dn);
+            WN[i] = dn / m1;
+        }
+
+        double m2 = 4294967296.0d;
+        double de = EXPONENTIAL_R;
+        double te = de;
+        q = EXPONENTIAL_V / Math.exp(-de);
+        KE[0] = (long) ((de / q) * m2);
+        KE[1] = 0;
+        WE[0] = q / m2;
+        WE[255] = de / m2;
+        FE[0] = 1.0d;
+        FE[255] = Math.exp(-de);
+        for (int i = 254; i >= 1; i--) {
+            de = -Math.log(EXPONENTIAL_V / de + Math.exp(-de));
+            KE[i + 1] = (long) ((de / te) * m2);
+            te = de;
+            FE[i] = Math.exp(-de);
+            WE[i] = de / m2;
+        }
+    }
+
+    private Ziggurat() {
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 标准正态分布随机数
+     */
+    static double normal(RandomEngine random) {
+        long bits = random.nextLong();
+        int hz = (int) (bits >> 32);
+        int iz = (int) bits & 127;
+        if (Math.abs((long) hz) < KN[iz]) {
+            return hz * WN[iz];
+        }
+        return normalTail(random, hz, iz);
+    }
+
+    private static double normalTail(RandomEngine random, int hz, int iz) {
+        for (; ; ) {
+            double x = hz * WN[iz];
+            if (iz == 0) {
+                double y;
+                do {
+                    x = -Math.log(1.0d - random.nextDouble()) / NORMAL_R;
+                    y = -Math.log(1.0d - random.nextDouble());
+                } while (y + y < x * x);
+                return hz > 0 ? NORMAL_R + x : -NORMAL_R - x;
+            }
+            if (FN[iz] + random.nextDouble() * (FN[iz - 1] - FN[iz]) < Math.exp(-0.5d * x * x)) {
+                return x;
+            }
+            long bits = random.nextLong();
+            hz = (int) (bits >> 32);
+            iz = (int) bits & 127;
+            if (Math.abs((long) hz) < KN[iz]) {
+                return hz * WN[iz];
+            }
+        }
+    }
+
+    /**
+     * @param random 当前线程的随机数引擎
+     * @return 标准指数分布（λ = 1）随机数
+     */
+    static double exponential(RandomEngine random) {
+        long bits = random.nextLong();
+        long jz = bits >>> 32;
+        int iz = (int) bits & 255;
+        if (jz < KE[iz]) {
+            return jz * WE[iz];
+        }
+        return exponentialTail(random, jz, iz);
+    }
+
+    private static double exponentialTail(RandomEngine random, long jz, int iz) {
+        for (; ; ) {
+            if (iz == 0) {
+                return EXPONENTIAL_R - Math.log(1.0d - random.nextDouble());
+            }
+            double x = jz * WE[iz];
+            if (FE[iz] + random.nextDouble() * (FE[iz - 1] - FE[iz]) < Math.exp(-x)) {
+                return x;
+            }
+            long bits = random.nextLong();
+            jz = bits >>> 32;
+            iz = (int) bits & 255;
+            if (jz < KE[iz]) {
+                return jz * WE[iz];
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin.functions;
+
+import com.yang.plugin.WeightedRandomSpec;
+import org.apache.jmeter.engine.util.CompoundVariable;
+import org.apache.jmeter.functions.AbstractFunction;
+import org.apache.jmeter.functions.InvalidVariableException;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @ClassName WeightedRandomFunction
+ * @Description 按占比产生随机数的函数，例如 ${__weightedRandom(1:10:20,40:70:30,100:200:50,%.2f)}。
+ * 每个调用位置各有一个实例，参数不变时复用编译结果；参数中含有变量时，求值结果不同的参数在所有调用位置之间
+ * 共享最近使用的 {@link #CACHE_SIZE} 个编译结果，同一组参数只编译一次，编译时发现的问题也只记录一次日志
+ * @Version 1.0
+ */
+public class WeightedRandomFunction extends AbstractFunction {
+
+    private static final List<String> DESC = new LinkedList<>();
+
+    private static final String KEY = "__weightedRandom"; //$NON-NLS-1$
+
+    static {
+        DESC.add("配置行 极小值:极大值:占比[:类型]，可填写多个"); //$NON-NLS-1$
+        DESC.add("格式（可选，默认 %.2f）"); //$NON-NLS-1$
+        DESC.add("保存结果的变量名（可选）"); //$NON-NLS-1$
+    }
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * 按参数求值结果缓存的编译结果，按访问顺序淘汰
+     */
+    private static final Map<List<String>, Compiled> CACHE = new LinkedHashMap<List<String>, Compiled>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, Compiled> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private CompoundVariable[] values;
+
+    /**
+     * 每个用户在该调用位置的状态保存在用户变量中的键
+     */
+    private final String stateKey = KEY + ".state." + SEQUENCE.incrementAndGet();
+
+    /**
+     * 参数求值结果与编译结果，整体替换
+     */
+    private volatile Compiled compiled;
+
+    private static final class Compiled {
+        final String[] args;
+        final WeightedRandomSpec spec;
+        final String variableName;
+
+        Compiled(String[] args) {
+            this.args = args;
+            this.spec = WeightedRandomSpec.compile(args);
+            this.variableName = WeightedRandomSpec.variableName(args);
+        }
+    }
+
+    @Override
+    public String execute(SampleResult previousResult, Sampler currentSampler) throws InvalidVariableException {
+        String[] args = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            args[i] = values[i].execute();
+        }
+        Compiled current = compiled;
+        if (current == null || !Arrays.equals(current.args, args)) {
+            current = compile(args);
+            compiled = current;
+        }
+        String value = current.spec.next(stateKey);
+        if (current.variableName != null) {
+            JMeterVariables variables = getVariables();
+            if (variables != null) {
+                variables.put(current.variableName, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 在锁内编译，并发求值同一组参数时也只编译一次
+     */
+    private static Compiled compile(String[] args) throws InvalidVariableException {
+        List<String> key = Arrays.asList(args);
+        synchronized (CACHE) {
+            Compiled cached = CACHE.get(key);
+            if (cached == null) {
+                try {
+                    cached = new Compiled(args);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidVariableException(KEY + ": " + e.getMessage(), e);
+                }
+                CACHE.put(key, cached);
+            }
+            return cached;
+        }
+    }
+
+    @Override
+    public void setParameters(Collection<CompoundVariable> parameters) throws InvalidVariableException {
+        checkMinParameterCount(parameters, 1);
+        values = parameters.toArray(new CompoundVariable[0]);
+    }
+
+    @Override
+    public String getReferenceKey() {
+        return KEY;
+    }
+
+    @Override
+    public List<String> getArgumentDesc() {
+        return DESC;
+    }
+}
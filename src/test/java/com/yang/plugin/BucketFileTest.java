@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName BucketFileTest
+ * @Description 文件区间表：无法解析的行被跳过并报告，缓存只用于生成它的源文件，枚举值只解码一次
+ * @Version 1.0
+ */
+public class BucketFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void invalidLinesAreSkippedAndReported() throws IOException {
+        File csv = csv("bad.csv", "min,max,ratio\n5,1,1\nNaN,3,1\n1,2,-5\n1,Infinity,1\n10,20,1\n1,2\n"
+                + "1,2,0\n1,2,1,DOUBEL\n");
+        RandomParameterElement element = Fixtures.element("file");
+        element.getHeaders().addItem(Fixtures.row(csv.getPath(), "", "1", "", "", "FILE"));
+        List<String> problems = RandomConfig.validate(element);
+        assertEquals(problems.toString(), 7, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains("line 2") && problems.get(0).contains("max < min"));
+        assertTrue(problems.get(2), problems.get(2).contains("line 4") && problems.get(2).contains("ratio"));
+        assertTrue(problems.get(5), problems.get(5).contains("line 8") && problems.get(5).contains("ratio 0"));
+        assertTrue(problems.get(6), problems.get(6).contains("line 9") && problems.get(6).contains("DOUBEL"));
+
+        BucketFile file = BucketFile.open(csv.getPath());
+        assertEquals(1, file.size());
+        RandomEngine random = new Xoshiro256PlusPlusEngine(1L);
+        for (int i = 0; i < 1000; i++) {
+            int index = file.next(random);
+            assertEquals(10, file.doubleMin(index), 0);
+            assertEquals(20, file.doubleMax(index), 0);
+        }
+    }
+
+    @Test
+    public void validationWritesNoCache() throws IOException {
+        File csv = csv("clean.csv", "1,10,20\n100,200,30,INT\n");
+        RandomParameterElement element = Fixtures.element("file");
+        element.getHeaders().addItem(Fixtures.row(csv.getPath(), "", "1", "", "", "FILE"));
+        assertEquals(0, RandomConfig.validate(element).size());
+        assertFalse(new File(csv.getPath() + BucketFile.CACHE_SUFFIX).exists());
+        BucketFile.open(csv.getPath());
+        assertTrue(new File(csv.getPath() + BucketFile.CACHE_SUFFIX).isFile());
+    }
+
+    @Test
+    public void cacheOfAnotherSourceIsNotReused() throws IOException {
+        File first = csv("first.csv", "A,,1,VALUE\n");
+        File second = csv("second.csv", "B,,1,VALUE\n");
+        assertTrue(second.setLastModified(first.lastModified()));
+        BucketFile.open(first.getPath());
+        File firstCache = new File(first.getPath() + BucketFile.CACHE_SUFFIX);
+        assertTrue(firstCache.isFile());
+        // 长度和修改时间都相同，只有源路径不同
+        Files.copy(firstCache.toPath(), new File(second.getPath() + BucketFile.CACHE_SUFFIX).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        BucketFile file = BucketFile.open(second.getPath());
+        assertEquals("B", file.value(0));
+    }
+
+    @Test
+    public void valuesAreDecodedOnce() throws IOException {
+        File csv = csv("values.csv", "\"user,1\",,1,VALUE\n用户二,,1,VALUE\n");
+        BucketFile file = BucketFile.open(csv.getPath());
+        assertEquals("user,1", file.value(0));
+        assertEquals("用户二", file.value(1));
+        assertSame(file.value(1), file.value(1));
+    }
+
+    private File csv(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
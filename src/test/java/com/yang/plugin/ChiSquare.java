@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+/**
+ * @ClassName ChiSquare
+ * @Description 卡方拟合优度检验，供采样器的测试使用
+ * @Version 1.0
+ */
+final class ChiSquare {
+
+    /**
+     * 显著性水平 0.001 对应的标准正态分位数
+     */
+    private static final double Z_999 = 3.090232306167813;
+
+    private ChiSquare() {
+    }
+
+    /**
+     * @param observed 各区间的实际次数
+     * @param ratios   各区间的占比，不要求归一化；占比为 0 的区间要求实际次数为 0，不计入自由度
+     * @return 卡方统计量
+     */
+    static double statistic(long[] observed, double[] ratios) {
+        double sum = 0;
+        long total = 0;
+        for (int i = 0; i < ratios.length; i++) {
+            sum += ratios[i];
+            total += observed[i];
+        }
+        double statistic = 0;
+        for (int i = 0; i < ratios.length; i++) {
+            if (ratios[i] == 0) {
+                if (observed[i] != 0) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            double expected = total * ratios[i] / sum;
+            double difference = observed[i] - expected;
+            statistic += difference * difference / expected;
+        }
+        return statistic;
+    }
+
+    /**
+     * Wilson-Hilferty 近似的卡方分布上 0.1% 分位数
+     *
+     * @param degrees 自由度
+     * @return 临界值
+     */
+    static double critical(int degrees) {
+        double k = degrees;
+        double term = 1 - 2 / (9 * k) + Z_999 * Math.sqrt(2 / (9 * k));
+        return k * term * term * term;
+    }
+
+    /**
+     * @param ratios 各区间的占比
+     * @return 自由度，即占比大于 0 的区间数减一
+     */
+    static int degrees(double[] ratios) {
+        int positive = 0;
+        for (double ratio : ratios) {
+            if (ratio > 0) {
+                positive++;
+            }
+        }
+        return positive - 1;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName DistributionReportTest
+ * @Description 取值分布报告：每个线程的直方图只分配用到的分段，线程结束时合并到汇总后不再持有
+ * @Version 1.0
+ */
+public class DistributionReportTest {
+
+    private static final int ROWS = 50;
+    private static final int ITERATIONS = 2000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void threadHistogramsAreSmallAndMergedWhenThreadFinishes() throws IOException {
+        File report = new File(folder.getRoot(), "report.csv");
+        RandomParameterElement element = Fixtures.element("report");
+        element.setHistogramReport(report.getPath());
+        for (int i = 0; i < ROWS; i++) {
+            element.getHeaders().addItem(Fixtures.row(String.valueOf(i * 100), String.valueOf(i * 100 + 50),
+                    "1", "", "", "DOUBLE"));
+        }
+        element.testStarted();
+        try {
+            long withHistograms = 0;
+            for (int user = 1; user <= 2; user++) {
+                JMeterVariables variables = Fixtures.startUser(element, user);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    element.iterationStart(null);
+                    variables.get("x");
+                }
+                RandomState state = Fixtures.state(variables);
+                withHistograms = GraphLayout.parseInstance(state).totalSize()
+                        - GraphLayout.parseInstance(state.owner).totalSize();
+                long sharedBefore = GraphLayout.parseInstance(state.owner).totalSize();
+                element.threadFinished();
+                // 合并后汇总只增加新分配的分段，不再引用线程的直方图
+                assertTrue(GraphLayout.parseInstance(state.owner).totalSize() - sharedBefore < withHistograms);
+            }
+            // 每行只有落入的一两个 2 的幂分段
+            assertTrue(withHistograms + " bytes per user", withHistograms <= ROWS * 1024L);
+        } finally {
+            element.testEnded();
+        }
+        List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        assertEquals(ROWS + 1, lines.size());
+        long total = 0;
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            total += Long.parseLong(fields[3]);
+            int row = Integer.parseInt(fields[1]) - 1;
+            double min = Double.parseDouble(fields[5]);
+            double max = Double.parseDouble(fields[6]);
+            double p50 = Double.parseDouble(fields[8]);
+            assertTrue(line, min >= row * 100 && max <= row * 100 + 50 && p50 >= min && p50 <= max);
+        }
+        assertEquals(2L * ITERATIONS, total);
+    }
+
+    @Test
+    public void percentilesCrossZero() {
+        ValueHistogram histogram = new ValueHistogram(-1000, 1000, true, true);
+        ValueHistogram other = new ValueHistogram(-1000, 1000, true, true);
+        for (int value = -1000; value <= 1000; value++) {
+            (value % 2 == 0 ? histogram : other).record(value);
+        }
+        histogram.add(other);
+        assertEquals(2001, histogram.count());
+        assertEquals(-1000, histogram.min(), 0);
+        assertEquals(1000, histogram.max(), 0);
+        assertEquals(0, histogram.mean(), 0);
+        assertEquals(0, histogram.percentile(0.5), 0);
+        assertEquals(-1000, histogram.percentile(0), 32);
+        assertEquals(800, histogram.percentile(0.9), 800 / 32.0);
+        assertEquals(-800, histogram.percentile(0.1), 800 / 32.0);
+    }
+}
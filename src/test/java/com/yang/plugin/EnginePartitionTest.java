@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName EnginePartitionTest
+ * @Description 各引擎的号码、不重复取值的子区间和种子互不重叠，合起来覆盖全部
+ * @Version 1.0
+ */
+public class EnginePartitionTest {
+
+    @Test
+    public void rangesAreDisjointAndCoverTheWhole() {
+        for (int count = 1; count <= 5; count++) {
+            for (long size : new long[]{0, 1, 2, 7, 1000, 1001}) {
+                long next = 0;
+                for (int index = 0; index < count; index++) {
+                    EnginePartition partition = partition(index, count);
+                    assertEquals(next, partition.start(size));
+                    next += partition.length(size);
+                    assertTrue(partition.length(size) >= size / count);
+                    assertTrue(partition.length(size) <= size / count + 1);
+                }
+                assertEquals(size, next);
+            }
+        }
+    }
+
+    @Test
+    public void ticketsInterleaveWithoutOverlap() {
+        int count = 3;
+        Set<Long> tickets = new HashSet<>();
+        for (int index = 0; index < count; index++) {
+            EnginePartition partition = partition(index, count);
+            for (long ticket = 0; ticket < 100; ticket++) {
+                assertTrue(tickets.add(partition.ticket(ticket)));
+            }
+        }
+        for (long ticket = 0; ticket < 300; ticket++) {
+            assertTrue(tickets.contains(ticket));
+        }
+    }
+
+    @Test
+    public void seedsDifferPerEngine() {
+        Set<Long> seeds = new HashSet<>();
+        for (int index = 0; index < 4; index++) {
+            seeds.add(partition(index, 4).seed(42L));
+        }
+        assertEquals(4, seeds.size());
+        assertEquals(42L, EnginePartition.SINGLE.seed(42L));
+    }
+
+    @Test
+    public void invalidSettingsFallBackToSingle() {
+        CompileProblems problems = new CompileProblems();
+        RandomParameterElement element = Fixtures.element("partition");
+        element.setEngineIndex("3");
+        element.setEngineCount("3");
+        assertSame(EnginePartition.SINGLE, EnginePartition.of(element, problems));
+        assertFalse(problems.list().isEmpty());
+    }
+
+    @Test
+    public void globalUniqueValuesAreDisjointAcrossEngines() {
+        Set<String> values = new HashSet<>();
+        for (int index = 0; index < 3; index++) {
+            RandomParameterElement element = Fixtures.element("engines");
+            element.setSeed("5");
+            element.setUniqueMode(UniqueMode.GLOBAL.name());
+            element.setEngineIndex(String.valueOf(index));
+            element.setEngineCount("3");
+            element.getHeaders().addItem(Fixtures.row("1", "3000", "1", "", "", "INT"));
+            element.testStarted();
+            JMeterVariables variables = Fixtures.startUser(element, 1);
+            for (int i = 0; i < 1000; i++) {
+                element.iterationStart(null);
+                assertTrue(values.add(variables.get("x")));
+            }
+            element.threadFinished();
+            element.testEnded();
+        }
+        assertEquals(3000, values.size());
+    }
+
+    private static EnginePartition partition(int index, int count) {
+        RandomParameterElement element = Fixtures.element("partition");
+        element.setEngineIndex(String.valueOf(index));
+        element.setEngineCount(String.valueOf(count));
+        EnginePartition partition = EnginePartition.of(element, new CompileProblems());
+        assertNotEquals(count > 1, partition == EnginePartition.SINGLE);
+        return partition;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * @ClassName Fixtures
+ * @Description 测试中构造元件和区间表的辅助方法
+ * @Version 1.0
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * @return 配置行
+     */
+    static RandomParameter row(String min, String max, String ratio, String variable, String format, String type) {
+        RandomParameter row = new RandomParameter(min, max, ratio, variable, format);
+        row.setHtype(type);
+        return row;
+    }
+
+    /**
+     * @param name 元件名
+     * @return 输出变量 x、格式为 %.2f 的元件
+     */
+    static RandomParameterElement element(String name) {
+        RandomParameterElement element = new RandomParameterElement();
+        element.setName(name);
+        element.setVariableName("x");
+        element.setOutputFormat("%.2f");
+        return element;
+    }
+
+    /**
+     * 在当前线程上模拟一个用户：设置用户变量和线程号并执行 threadStarted
+     *
+     * @param element   已执行 testStarted 的元件
+     * @param threadNum 线程号
+     * @return 该用户的变量
+     */
+    static JMeterVariables startUser(RandomParameterElement element, int threadNum) {
+        JMeterVariables variables = new JMeterVariables();
+        switchUser(variables, threadNum);
+        element.threadStarted();
+        return variables;
+    }
+
+    /**
+     * 把当前线程的上下文切换到指定用户
+     */
+    static void switchUser(JMeterVariables variables, int threadNum) {
+        JMeterContext context = JMeterContextService.getContext();
+        context.setVariables(variables);
+        context.setThreadNum(threadNum);
+    }
+
+    /**
+     * @return 用户变量中保存的元件状态，没有时返回 null
+     */
+    static RandomState state(JMeterVariables variables) {
+        Iterator<Map.Entry<String, Object>> entries = variables.getIterator();
+        while (entries.hasNext()) {
+            Object value = entries.next().getValue();
+            if (value instanceof RandomState) {
+                return (RandomState) value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ratios 各行的占比，可以为 0（相当于占比计划中调低到 0 的行）
+     * @return 每行一个 [0, 1) 浮点数区间的区间表
+     */
+    static BucketTable table(double[] ratios) {
+        RandomParameterElement element = element("table");
+        StringJoiner schedule = new StringJoiner(",", "0=", "");
+        int[] rows = new int[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            schedule.add(String.valueOf(ratios[i]));
+            element.getHeaders().addItem(row("0", "1", String.valueOf(ratios[i]), "", "", "DOUBLE"));
+            rows[i] = i;
+        }
+        // 占比为 0 的行只在配置了占比计划时保留
+        element.setRatioSchedule(schedule.toString());
+        return BucketTable.compile(element, rows, 1, new CompileProblems())[0];
+    }
+}
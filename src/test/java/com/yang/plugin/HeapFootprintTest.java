@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName HeapFootprintTest
+ * @Description 每个用户的元件状态只包含自己的计数，区间表、占比、变量名和格式由所有用户共享。
+ * 用 JOL 统计状态可达的对象，减去编译后的配置可达的对象，得到一个用户独占的内存
+ * @Version 1.0
+ */
+public class HeapFootprintTest {
+
+    /**
+     * 按占比补齐时每个配置行只有次数 double 和堆下标 int
+     */
+    private static final long BYTES_PER_ROW = 12;
+
+    @Test
+    public void perUserStateIsSmallAndGrowsOnlyWithCounts() {
+        long small = footprint(16);
+        long large = footprint(100);
+        assertTrue("16 rows take " + small + " bytes per user", small <= 1024);
+        // 数组按 8 字节对齐，两个数组各留 8 字节余量
+        assertTrue("84 more rows take " + (large - small) + " bytes per user",
+                large - small <= 84 * BYTES_PER_ROW + 16);
+    }
+
+    private static long footprint(int rows) {
+        RandomParameterElement element = Fixtures.element("heap");
+        for (int i = 0; i < rows; i++) {
+            element.getHeaders().addItem(Fixtures.row(String.valueOf(i * 100), String.valueOf(i * 100 + 50),
+                    String.valueOf(i % 7 + 1), "", "", "DOUBLE"));
+        }
+        element.testStarted();
+        try {
+            JMeterVariables variables = Fixtures.startUser(element, 1);
+            element.iterationStart(null);
+            RandomState state = Fixtures.state(variables);
+            assertNotNull(state);
+            long total = GraphLayout.parseInstance(state).totalSize();
+            long shared = GraphLayout.parseInstance(state.owner).totalSize();
+            element.threadFinished();
+            return total - shared;
+        } finally {
+            element.testEnded();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName LazyGenerationTest
+ * @Description 首次读取时生成：同一次迭代中多次读取得到同一个值，联合行整组生成，未读取的迭代不消耗占比
+ * @Version 1.0
+ */
+public class LazyGenerationTest {
+
+    private RandomParameterElement element;
+
+    @Before
+    public void setUp() {
+        element = Fixtures.element("lazy");
+        element.setGenerationMode(GenerationMode.LAZY.name());
+        element.setSeed("7");
+        element.getHeaders().addItem(Fixtures.row("A", "", "50", "", "", "VALUE"));
+        element.getHeaders().addItem(Fixtures.row("B", "", "50", "", "", "VALUE"));
+        element.getHeaders().addItem(Fixtures.row("GOLD;500", ";5000", "20", "tier,amount", ";%.2f", "VALUE;DOUBLE"));
+        element.getHeaders().addItem(Fixtures.row("BASIC;1", ";50", "80", "tier,amount", ";%.2f", "VALUE;DOUBLE"));
+        element.testStarted();
+    }
+
+    @After
+    public void tearDown() {
+        element.threadFinished();
+        element.testEnded();
+    }
+
+    @Test
+    public void valueIsStableWithinAnIteration() {
+        JMeterVariables variables = Fixtures.startUser(element, 1);
+        for (int i = 0; i < 200; i++) {
+            element.iterationStart(null);
+            String amount = variables.get("amount");
+            assertEquals(amount, variables.get("amount"));
+            String tier = variables.get("tier");
+            assertEquals(tier, variables.get("tier"));
+            assertEquals(amount, variables.get("amount"));
+            double value = Double.parseDouble(amount);
+            if (tier.equals("GOLD")) {
+                assertTrue(amount, value >= 500 && value <= 5000);
+            } else {
+                assertEquals("BASIC", tier);
+                assertTrue(amount, value >= 1 && value <= 50);
+            }
+        }
+    }
+
+    @Test
+    public void unreadIterationsDoNotConsumeValues() {
+        JMeterVariables variables = Fixtures.startUser(element, 1);
+        StringBuilder read = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            element.iterationStart(null);
+            if (i % 2 == 0) {
+                read.append(variables.get("x"));
+            }
+        }
+        // 按占比补齐时 A、B 交替出现，跳过的迭代没有产生值
+        assertEquals("ABABABABAB", read.toString());
+    }
+}
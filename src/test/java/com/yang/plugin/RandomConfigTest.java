@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName RandomConfigTest
+ * @Description 元件级设置的编译：无效或会被替换的设置作为问题报告
+ * @Version 1.0
+ */
+public class RandomConfigTest {
+
+    @Test
+    public void toleranceOutsideUnitIntervalIsReported() {
+        for (String tolerance : new String[]{"0", "-0.1", "1", "5", "NaN"}) {
+            List<String> problems = RandomConfig.validate(element(tolerance));
+            assertEquals(tolerance + ": " + problems, 1, problems.size());
+            assertTrue(problems.get(0), problems.get(0).contains("Global tolerance"));
+        }
+        for (String tolerance : new String[]{"", "0.01", "0.5", "1e-6"}) {
+            assertEquals(tolerance, 0, RandomConfig.validate(element(tolerance)).size());
+        }
+    }
+
+    @Test
+    public void seededThreadLocalRandomIsReportedAsSplittableRandom() {
+        RandomParameterElement element = element("");
+        element.setSeed("7");
+        List<String> problems = RandomConfig.validate(element);
+        assertEquals(problems.toString(), 1, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains("SplittableRandom"));
+        element.setRandomEngine(RandomEngineType.XOSHIRO256PP.name());
+        assertEquals(0, RandomConfig.validate(element).size());
+    }
+
+    @Test
+    public void emptyVariableNameIsOmittedFromDescriptions() {
+        RandomParameterElement element = Fixtures.element(WeightedRandomSpec.FUNCTION_NAME);
+        element.setVariableName("");
+        element.getHeaders().addItem(Fixtures.row("1", "2", "1", "", "%d", "DOUBLE"));
+        List<String> problems = RandomConfig.validate(element);
+        assertEquals(problems.toString(), 1, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains(WeightedRandomSpec.FUNCTION_NAME + " row 1"));
+    }
+
+    @Test
+    public void unknownTypeOrDistributionSkipsTheRow() {
+        RandomParameter unknownType = Fixtures.row("1", "2", "1", "", "", "DOUBEL");
+        RandomParameter unknownDistribution = Fixtures.row("1", "2", "1", "", "", "INT");
+        unknownDistribution.setHdistribution("GAUSS");
+        for (RandomParameter row : new RandomParameter[]{unknownType, unknownDistribution}) {
+            RandomParameterElement element = element("");
+            element.getHeaders().addItem(row);
+            List<String> problems = RandomConfig.validate(element);
+            assertEquals(problems.toString(), 1, problems.size());
+            assertTrue(problems.get(0), problems.get(0).contains("Skipping row 2"));
+        }
+        RandomParameterElement element = element("");
+        element.getHeaders().addItem(Fixtures.row("1", "2", "1", "", "", " int "));
+        element.getHeaders().addItem(Fixtures.row("1", "2", "1", "", "", ""));
+        assertEquals(0, RandomConfig.validate(element).size());
+    }
+
+    @Test
+    public void zeroRatioSkipsTheRowUnlessScheduled() {
+        RandomParameterElement element = element("");
+        element.getHeaders().addItem(Fixtures.row("3", "4", "0", "", "", "DOUBLE"));
+        List<String> problems = RandomConfig.validate(element);
+        assertEquals(problems.toString(), 1, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains("Skipping row 2") && problems.get(0).contains("ratio 0"));
+        element.setRatioSchedule("0=1,0\n60=1,1");
+        assertEquals(0, RandomConfig.validate(element).size());
+    }
+
+    private static RandomParameterElement element(String tolerance) {
+        RandomParameterElement element = Fixtures.element("config");
+        element.setDistributionMode(DistributionMode.GLOBAL.name());
+        element.setGlobalTolerance(tolerance);
+        element.getHeaders().addItem(Fixtures.row("1", "2", "1", "", "", "DOUBLE"));
+        return element;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jmeter.util.JMeterUtils;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @ClassName RatioStatisticsTest
+ * @Description 占比统计：联合行整行只计数一次，各变量按同一组计数输出
+ * @Version 1.0
+ */
+public class RatioStatisticsTest {
+
+    private static final int ITERATIONS = 1000;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void loadProperties() throws IOException {
+        File properties = folder.newFile("jmeter.properties");
+        JMeterUtils.loadJMeterProperties(properties.getPath());
+    }
+
+    @Test
+    public void jointRowIsCountedOncePerIteration() {
+        RandomParameterElement element = Fixtures.element("stats");
+        element.setStatisticsInterval("3600");
+        element.getHeaders().addItem(Fixtures.row("1;10", "2;20", "1", "tier,amount", "", "INT;INT"));
+        element.getHeaders().addItem(Fixtures.row("3;30", "4;40", "3", "tier,amount", "", "INT;INT"));
+        element.testStarted();
+        try {
+            JMeterVariables variables = Fixtures.startUser(element, 1);
+            for (int i = 0; i < ITERATIONS; i++) {
+                element.iterationStart(null);
+                variables.get("tier");
+            }
+            element.threadFinished();
+        } finally {
+            element.testEnded();
+        }
+        long total = 0;
+        for (int row = 1; row <= 2; row++) {
+            String tier = JMeterUtils.getProperty("random.stats.tier." + row + ".count");
+            assertEquals(tier, JMeterUtils.getProperty("random.stats.amount." + row + ".count"));
+            total += Long.parseLong(tier);
+        }
+        assertEquals(ITERATIONS, total);
+        assertEquals(String.valueOf(ITERATIONS), JMeterUtils.getProperty("random.stats.amount.total"));
+    }
+}
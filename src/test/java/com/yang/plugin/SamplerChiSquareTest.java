@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName SamplerChiSquareTest
+ * @Description 用固定种子和 0.001 的显著性水平检验各区间选择方式产生的次数符合配置的占比
+ * @Version 1.0
+ */
+public class SamplerChiSquareTest {
+
+    private static final long SEED = 20261018L;
+    private static final int DRAWS = 200000;
+
+    private static final double[] RATIOS = {20, 30, 50, 0, 7.5, 1, 0.25, 91.25};
+
+    @Test
+    public void aliasTableMatchesRatios() {
+        AliasTable table = new AliasTable(RATIOS);
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        long[] observed = new long[RATIOS.length];
+        for (int i = 0; i < DRAWS; i++) {
+            observed[table.next(random)]++;
+        }
+        assertFits(observed, RATIOS);
+    }
+
+    @Test
+    public void cumulativeSearchMatchesRatios() {
+        double[] cumulative = new double[RATIOS.length];
+        double sum = 0;
+        for (double ratio : RATIOS) {
+            sum += ratio;
+        }
+        double running = 0;
+        for (int i = 0; i < RATIOS.length; i++) {
+            running += RATIOS[i];
+            cumulative[i] = running / sum;
+        }
+        cumulative[RATIOS.length - 1] = 1.0d;
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        long[] observed = new long[RATIOS.length];
+        for (int i = 0; i < DRAWS; i++) {
+            observed[BucketWeights.search(cumulative, random.nextDouble())]++;
+        }
+        assertFits(observed, RATIOS);
+    }
+
+    @Test
+    public void cumulativeSearchBoundaries() {
+        double[] cumulative = {0.2, 0.2, 0.5, 1.0};
+        assertEquals(0, BucketWeights.search(cumulative, 0));
+        assertEquals(0, BucketWeights.search(cumulative, Math.nextDown(0.2)));
+        // 占比为 0 的区间 1 不会被选中
+        assertEquals(2, BucketWeights.search(cumulative, 0.2));
+        assertEquals(3, BucketWeights.search(cumulative, 0.5));
+        assertEquals(3, BucketWeights.search(cumulative, Math.nextDown(1.0)));
+        assertEquals(0, BucketWeights.search(new double[]{1.0}, 0.7));
+    }
+
+    @Test
+    public void deficitSamplerMatchesRatios() {
+        BucketTable table = Fixtures.table(RATIOS);
+        BucketWeights weights = new BucketWeights(RATIOS.clone(), false, false);
+        DeficitBucketSampler sampler = new DeficitBucketSampler(table, weights, new Xoshiro256PlusPlusEngine(SEED));
+        long[] observed = new long[RATIOS.length];
+        for (int i = 0; i < DRAWS; i++) {
+            observed[sampler.nextBucket()]++;
+        }
+        assertFits(observed, RATIOS);
+        // 按占比补齐是确定性的，每个区间与目标的偏差不超过一次
+        double sum = 0;
+        for (double ratio : RATIOS) {
+            sum += ratio;
+        }
+        for (int i = 0; i < RATIOS.length; i++) {
+            assertEquals("bucket " + i, DRAWS * RATIOS[i] / sum, observed[i], 1.0d);
+        }
+    }
+
+    @Test
+    public void deficitSamplerWithAllZeroRatiosRoundRobins() {
+        double[] ratios = {0, 0, 0};
+        DeficitBucketSampler sampler = new DeficitBucketSampler(Fixtures.table(ratios),
+                new BucketWeights(ratios, false, false), new Xoshiro256PlusPlusEngine(SEED));
+        long[] observed = new long[ratios.length];
+        for (int i = 0; i < 300; i++) {
+            observed[sampler.nextBucket()]++;
+        }
+        assertEquals(100, observed[0]);
+        assertEquals(100, observed[1]);
+        assertEquals(100, observed[2]);
+    }
+
+    private static void assertFits(long[] observed, double[] ratios) {
+        double statistic = ChiSquare.statistic(observed, ratios);
+        double critical = ChiSquare.critical(ChiSquare.degrees(ratios));
+        assertTrue("chi-square " + statistic + " exceeds " + critical, statistic < critical);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.control.LoopController;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName SequenceReplayTest
+ * @Description 录制后回放得到与录制时完全相同的取值；同名线程组的线程各自对应自己的序列；测试结束后才结束的线程不会出错
+ * @Version 1.0
+ */
+public class SequenceReplayTest {
+
+    private static final int ITERATIONS = 3000;
+
+    /**
+     * 两个同名线程组中线程号相同的两个线程
+     */
+    private static final String[] THREADS = {"Users 1-1", "Users 2-1"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        JMeterContextService.getContext().setThread(null);
+    }
+
+    @Test
+    public void replayReproducesRecordedValues() {
+        File sequence = new File(folder.getRoot(), "values.seq");
+        List<List<String>> recorded = run(element(SequenceMode.RECORD, sequence));
+        assertNotEquals(recorded.get(0), recorded.get(1));
+        List<List<String>> replayed = run(element(SequenceMode.REPLAY, sequence));
+        assertEquals(recorded, replayed);
+    }
+
+    @Test
+    public void validationScansSequenceWithoutReplaying() {
+        File sequence = new File(folder.getRoot(), "validate.seq");
+        run(element(SequenceMode.RECORD, sequence));
+        RandomParameterElement replay = element(SequenceMode.REPLAY, sequence);
+        assertEquals(0, RandomConfig.validate(replay).size());
+        replay.getHeaders().addItem(Fixtures.row("1", "2", "1", "other", "", "DOUBLE"));
+        List<String> problems = RandomConfig.validate(replay);
+        assertEquals(problems.toString(), 1, problems.size());
+        assertTrue(problems.get(0), problems.get(0).contains("other"));
+    }
+
+    @Test
+    public void threadFinishingAfterTestEndIsIgnored() {
+        File sequence = new File(folder.getRoot(), "late.seq");
+        RandomParameterElement element = element(SequenceMode.RECORD, sequence);
+        element.testStarted();
+        JMeterVariables variables = Fixtures.startUser(element, 1);
+        for (int i = 0; i < 10; i++) {
+            element.iterationStart(null);
+            variables.get("amount");
+        }
+        element.testEnded();
+        element.threadFinished();
+    }
+
+    /**
+     * 不设置种子，两个线程录制的取值不同，回放时也没有种子可以重新得到相同的取值
+     */
+    private static RandomParameterElement element(SequenceMode mode, File sequence) {
+        RandomParameterElement element = Fixtures.element("sequence");
+        element.setSequenceMode(mode.name());
+        element.setSequenceFile(sequence.getPath());
+        element.getHeaders().addItem(Fixtures.row("金;500", ";5000", "20", "tier,amount", ";%.2f", "VALUE;DOUBLE"));
+        element.getHeaders().addItem(Fixtures.row("BASIC;1", ";50", "80", "tier,amount", ";%.2f", "VALUE;DOUBLE"));
+        return element;
+    }
+
+    /**
+     * 交替执行两个线程的迭代，返回每个线程依次读到的取值
+     */
+    private static List<List<String>> run(RandomParameterElement element) {
+        List<List<String>> values = new ArrayList<>();
+        JMeterVariables[] users = new JMeterVariables[THREADS.length];
+        JMeterThread[] threads = new JMeterThread[THREADS.length];
+        element.testStarted();
+        try {
+            for (int user = 0; user < THREADS.length; user++) {
+                threads[user] = new JMeterThread(new ListedHashTree(new LoopController()), null, null);
+                threads[user].setThreadName(THREADS[user]);
+                JMeterContextService.getContext().setThread(threads[user]);
+                users[user] = Fixtures.startUser(element, 1);
+                values.add(new ArrayList<>());
+            }
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (int user = 0; user < THREADS.length; user++) {
+                    JMeterContextService.getContext().setThread(threads[user]);
+                    Fixtures.switchUser(users[user], 1);
+                    element.iterationStart(null);
+                    values.get(user).add(users[user].get("tier") + "," + users[user].get("amount"));
+                }
+            }
+            for (int user = 0; user < THREADS.length; user++) {
+                JMeterContextService.getContext().setThread(threads[user]);
+                Fixtures.switchUser(users[user], 1);
+                element.threadFinished();
+            }
+        } finally {
+            element.testEnded();
+        }
+        return values;
+    }
+}
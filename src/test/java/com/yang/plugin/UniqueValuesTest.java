@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @ClassName UniqueValuesTest
+ * @Description 整数取值去重：全局不重复时多个线程合起来没有重复，线程内不重复时单个线程没有重复
+ * @Version 1.0
+ */
+public class UniqueValuesTest {
+
+    @Test
+    public void permutationIsABijection() {
+        for (long size : new long[]{1, 2, 3, 17, 1000, 4097}) {
+            FeistelPermutation permutation = new FeistelPermutation(size, 99L);
+            Set<Long> seen = new HashSet<>();
+            for (long i = 0; i < size; i++) {
+                long value = permutation.apply(i);
+                assertTrue(value >= 0 && value < size);
+                seen.add(value);
+            }
+            assertEquals(size, seen.size());
+        }
+    }
+
+    @Test
+    public void globalModeHasNoDuplicatesAcrossThreads() throws Exception {
+        RandomParameterElement element = uniqueElement(UniqueMode.GLOBAL, "1", "10000");
+        element.testStarted();
+        List<String> values = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int threadNum = t + 1;
+            threads.add(new Thread(() -> {
+                JMeterVariables variables = Fixtures.startUser(element, threadNum);
+                for (int i = 0; i < 2500; i++) {
+                    element.iterationStart(null);
+                    values.add(variables.get("x"));
+                }
+                element.threadFinished();
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        element.testEnded();
+        assertEquals(10000, values.size());
+        Set<String> distinct = new HashSet<>(values);
+        assertEquals(10000, distinct.size());
+        for (String value : distinct) {
+            int number = Integer.parseInt(value);
+            assertTrue(value, number >= 1 && number <= 10000);
+        }
+    }
+
+    @Test
+    public void threadModeHasNoDuplicatesWithinAThread() {
+        RandomParameterElement element = uniqueElement(UniqueMode.THREAD, "-500", "499");
+        element.testStarted();
+        JMeterVariables variables = Fixtures.startUser(element, 1);
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            element.iterationStart(null);
+            distinct.add(variables.get("x"));
+        }
+        element.threadFinished();
+        element.testEnded();
+        assertEquals(1000, distinct.size());
+    }
+
+    private static RandomParameterElement uniqueElement(UniqueMode mode, String min, String max) {
+        RandomParameterElement element = Fixtures.element("unique");
+        element.setUniqueMode(mode.name());
+        element.getHeaders().addItem(Fixtures.row(min, max, "1", "", "", "INT"));
+        return element;
+    }
+}
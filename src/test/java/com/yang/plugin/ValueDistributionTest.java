@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @ClassName ValueDistributionTest
+ * @Description 用固定种子和 0.001 的显著性水平检验截断后的分布与理论分布一致，区间远离分布中心时不会在边界上堆积
+ * @Version 1.0
+ */
+public class ValueDistributionTest {
+
+    private static final long SEED = 20261018L;
+    private static final int DRAWS = 100000;
+    private static final int BINS = 20;
+
+    @Test
+    public void truncatedStandardNormalMatchesDensity() {
+        // 依次覆盖 ziggurat 拒绝、包含 0 的窄区间、单侧窄区间、右尾和翻转后的左尾
+        double[][] ranges = {{-1, 2}, {-0.3, 0.4}, {0.5, 0.9}, {1, 4}, {3, 6}, {-5, -2.5}};
+        for (double[] range : ranges) {
+            ValueDistribution.TruncatedStandardNormal normal =
+                    new ValueDistribution.TruncatedStandardNormal(range[0], range[1]);
+            RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+            long[] observed = new long[BINS];
+            double width = (range[1] - range[0]) / BINS;
+            for (int i = 0; i < DRAWS; i++) {
+                double z = normal.sample(random);
+                assertTrue(z >= range[0] && z <= range[1]);
+                observed[Math.min(BINS - 1, (int) ((z - range[0]) / width))]++;
+            }
+            double[] expected = new double[BINS];
+            for (int i = 0; i < BINS; i++) {
+                expected[i] = normalMass(range[0] + i * width, range[0] + (i + 1) * width);
+            }
+            assertFits(range[0] + ".." + range[1], observed, expected);
+        }
+    }
+
+    @Test
+    public void farTailIsNotPiledOnBound() {
+        ValueDistribution normal = ValueDistribution.create(DistributionType.NORMAL, "0,1", 100, 200, false);
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        double sum = 0;
+        int atBound = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            double value = normal.sample(random);
+            assertTrue(value >= 100 && value <= 200);
+            atBound += value == 100 ? 1 : 0;
+            sum += value;
+        }
+        assertTrue(atBound + " draws on the bound", atBound < 10);
+        // 截断到 [a, ∞) 的标准正态分布均值约为 a + 1/a - 2/a^3
+        assertEquals(100.0099980, sum / DRAWS, 1e-3);
+    }
+
+    @Test
+    public void truncatedExponentialMatchesDensity() {
+        double rate = 0.5;
+        ValueDistribution exponential = ValueDistribution.create(DistributionType.EXPONENTIAL,
+                String.valueOf(rate), 10, 14, false);
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        long[] observed = new long[BINS];
+        double width = 4.0d / BINS;
+        for (int i = 0; i < DRAWS; i++) {
+            double value = exponential.sample(random);
+            assertTrue(value >= 10 && value <= 14);
+            observed[Math.min(BINS - 1, (int) ((value - 10) / width))]++;
+        }
+        double[] expected = new double[BINS];
+        for (int i = 0; i < BINS; i++) {
+            expected[i] = Math.exp(-rate * i * width) - Math.exp(-rate * (i + 1) * width);
+        }
+        assertFits("exponential", observed, expected);
+    }
+
+    @Test
+    public void integerExponentialMatchesCellMass() {
+        // 默认速率 4/9，整数 k 的概率为 [k-0.5, k+0.5) 上的质量，从 0.5 开始衰减
+        ValueDistribution exponential = ValueDistribution.create(DistributionType.EXPONENTIAL, "", 1, 10, true);
+        double rate = 4.0d / 9;
+        double[] expected = new double[10];
+        for (int k = 1; k <= 10; k++) {
+            expected[k - 1] = Math.exp(-rate * (k - 1)) - Math.exp(-rate * k);
+        }
+        assertFits("integer exponential", integerCounts(exponential, 1, 10), expected);
+    }
+
+    @Test
+    public void integerNormalMatchesCellMass() {
+        ValueDistribution normal = ValueDistribution.create(DistributionType.NORMAL, "4,3", 1, 10, true);
+        double[] expected = new double[10];
+        for (int k = 1; k <= 10; k++) {
+            expected[k - 1] = normalMass((k - 0.5 - 4) / 3, (k + 0.5 - 4) / 3);
+        }
+        assertFits("integer normal", integerCounts(normal, 1, 10), expected);
+    }
+
+    @Test
+    public void zipfMatchesPowerLaw() {
+        for (double exponent : new double[]{0.5, 1.0, 1.7}) {
+            ValueDistribution zipf = ValueDistribution.create(DistributionType.ZIPF, String.valueOf(exponent),
+                    5, 54, true);
+            double[] expected = new double[50];
+            for (int k = 1; k <= expected.length; k++) {
+                expected[k - 1] = 1 / Math.pow(k, exponent);
+            }
+            assertFits("zipf s=" + exponent, integerCounts(zipf, 5, 54), expected);
+        }
+    }
+
+    @Test
+    public void logNormalDefaultsFollowRange() {
+        ValueDistribution logNormal = ValueDistribution.create(DistributionType.LOG_NORMAL, "", 100, 200, false);
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        int below = 0;
+        int atBound = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            double value = logNormal.sample(random);
+            assertTrue(value >= 100 && value <= 200);
+            atBound += value == 100 || value == 200 ? 1 : 0;
+            below += value < Math.sqrt(100 * 200) ? 1 : 0;
+        }
+        assertTrue(atBound + " draws on the bounds", atBound < 10);
+        // 默认中位数为几何中点
+        assertEquals(0.5, (double) below / DRAWS, 0.01);
+    }
+
+    @Test
+    public void logNormalNeedsParametersWhenMinIsNotPositive() {
+        try {
+            ValueDistribution.create(DistributionType.LOG_NORMAL, "", 0, 200, false);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("mu,sigma"));
+        }
+        ValueDistribution logNormal = ValueDistribution.create(DistributionType.LOG_NORMAL, "0,1", 0, 10, true);
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        for (int i = 0; i < DRAWS; i++) {
+            long value = logNormal.sampleLong(random);
+            assertTrue(value >= 0 && value <= 10);
+        }
+    }
+
+    /**
+     * @return 取值 min 到 max 各整数出现的次数
+     */
+    private static long[] integerCounts(ValueDistribution distribution, int min, int max) {
+        RandomEngine random = new Xoshiro256PlusPlusEngine(SEED);
+        long[] observed = new long[max - min + 1];
+        for (int i = 0; i < DRAWS; i++) {
+            long value = distribution.sampleLong(random);
+            assertTrue(String.valueOf(value), value >= min && value <= max);
+            observed[(int) (value - min)]++;
+        }
+        return observed;
+    }
+
+    private static void assertFits(String message, long[] observed, double[] expected) {
+        double statistic = ChiSquare.statistic(observed, expected);
+        int degrees = ChiSquare.degrees(expected);
+        assertTrue(message + ": chi-square " + statistic + " with " + degrees + " degrees",
+                statistic < ChiSquare.critical(degrees));
+    }
+
+    /**
+     * Simpson 积分求标准正态分布在 [from, to] 上的概率（未归一化的密度即可）
+     */
+    private static double normalMass(double from, double to) {
+        int steps = 200;
+        double h = (to - from) / steps;
+        double sum = density(from) + density(to);
+        for (int i = 1; i < steps; i++) {
+            sum += (i % 2 == 0 ? 2 : 4) * density(from + i * h);
+        }
+        return sum * h / 3;
+    }
+
+    private static double density(double z) {
+        return Math.exp(-z * z / 2);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.yang.plugin;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IllegalFormatException;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @ClassName ValueFormatterTest
+ * @Description 编译后的格式与 String.format 的输出逐字符一致，包括舍入、负数、非有限值和回退到 String.format 的格式
+ * @Version 1.0
+ */
+@RunWith(Parameterized.class)
+public class ValueFormatterTest {
+
+    private static final double[] DOUBLES = {
+            0, -0.0d, 1, -1, 0.5, 1.5, 2.5, -2.5, 0.125, 0.375, 1.005, 2.675, 1.115, -1.115, 0.045, 9.995,
+            99.995, 123456789.125, 1e-9, -1e-9, 4503599627370495.5d, 1e15, 1e17, 1e300, -1e300,
+            Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private static final long[] LONGS = {
+            0, 1, -1, 7, 42, -42, 1000000, -1234567, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1
+    };
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> patterns() {
+        return Arrays.asList(new Object[][]{
+                {"%d"}, {"%5d"}, {"%-5d|"}, {"%05d"}, {"ID%012d"}, {"user-%d@example.com"},
+                {"%.0f"}, {"%.1f"}, {"%.2f"}, {"%.3f"}, {"%.6f"}, {"%.15f"}, {"%f"},
+                {"%8.2f"}, {"%-8.2f|"}, {"%08.2f"}, {"$%.2f USD"}, {"%.2f%%"}, {"%d%n"}, {"plain"},
+                // 以下由编译后的格式回退到 String.format
+                {"%,.2f"}, {"%+.2f"}, {"%(.2f"}, {"%.2e"}, {"%g"}, {"%x"}, {"%,d"}, {"%+d"}, {"%1$d-%1$d"},
+                {"%s"}, {"%.20f"}
+        });
+    }
+
+    private final String pattern;
+    private final ValueFormatter formatter;
+
+    public ValueFormatterTest(String pattern) {
+        this.pattern = pattern;
+        this.formatter = ValueFormatter.compile(pattern);
+    }
+
+    @Test
+    public void doublesMatchStringFormat() {
+        for (double value : DOUBLES) {
+            assertDouble(value);
+        }
+    }
+
+    @Test
+    public void longsMatchStringFormat() {
+        for (long value : LONGS) {
+            assertLong(value);
+        }
+    }
+
+    /**
+     * 随机的 x.xx5 附近的值和任意区间内的值，覆盖二进制表示略大于或略小于舍入点的情况
+     */
+    @Test
+    public void randomValuesMatchStringFormat() {
+        SplittableRandom random = new SplittableRandom(4L);
+        for (int i = 0; i < 5000; i++) {
+            assertDouble((random.nextInt(2000000) - 1000000 + 0.5d) / 1000);
+            assertDouble((random.nextInt(2000000) + 0.5d) / 100);
+            assertDouble(random.nextDouble(-1e6, 1e6));
+            assertLong(random.nextLong());
+        }
+    }
+
+    private void assertDouble(double value) {
+        String expected;
+        try {
+            expected = String.format(pattern, value);
+        } catch (IllegalFormatException e) {
+            return;
+        }
+        StringBuilder out = new StringBuilder();
+        formatter.format(value, out);
+        assertEquals(pattern + " of " + value, expected, out.toString());
+    }
+
+    private void assertLong(long value) {
+        String expected;
+        try {
+            expected = String.format(pattern, value);
+        } catch (IllegalFormatException e) {
+            return;
+        }
+        StringBuilder out = new StringBuilder();
+        formatter.format(value, out);
+        assertEquals(pattern + " of " + value, expected, out.toString());
+    }
+}